@@ -0,0 +1,68 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.service.QRCodeService;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// So sánh đường cũ (QRCodeWriter mới mỗi lần + PNG base64 trong JSON) với đường mới
+// (writer dùng chung, trả PNG/SVG thô). Mỗi lần gọi dùng transactionId khác nhau như thực tế.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QRCodeBenchmark {
+    private QRCodeService qrCodeService;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        qrCodeService = new QRCodeService();
+    }
+
+    private String nextContent() {
+        return qrCodeService.buildPaymentContent("MOMO", "50000", "42", "TXN_" + (sequence++));
+    }
+
+    // Bản sao generateQRCode trước thay đổi
+    @Benchmark
+    public String legacyBase64Png() throws Exception {
+        QRCodeWriter writer = new QRCodeWriter();
+        BitMatrix bitMatrix = writer.encode(nextContent(), BarcodeFormat.QR_CODE, 300, 300);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(outputStream.toByteArray());
+    }
+
+    @Benchmark
+    public String sharedWriterBase64Png() throws Exception {
+        return qrCodeService.generateQRCode(nextContent(), 300, 300);
+    }
+
+    @Benchmark
+    public byte[] pngBytes() throws Exception {
+        return qrCodeService.renderPng(nextContent(), 300, 300);
+    }
+
+    @Benchmark
+    public byte[] svgBytes() throws Exception {
+        return qrCodeService.renderSvg(nextContent(), 300);
+    }
+}
@@ -26,8 +26,13 @@ public class SecurityConfig {
             .cors(cors -> cors.configure(http))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
+                .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/payments/callbacks/*").permitAll()
                 .requestMatchers("/api/game-players/available").permitAll()
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/game-players").permitAll()
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/game-players/search").permitAll()
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/game-players/facets").permitAll()
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/game-players/text-search").permitAll()
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/game-players/autocomplete").permitAll()
                 .requestMatchers("/api/games").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/players/*/followers/count").permitAll()
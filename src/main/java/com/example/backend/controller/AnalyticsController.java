@@ -0,0 +1,41 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.DemandHeatmapDTO;
+import com.example.backend.service.DemandHeatmapService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:3000")
+@Tag(name = "Analytics", description = "Hire demand analytics APIs")
+public class AnalyticsController {
+    private final DemandHeatmapService demandHeatmapService;
+
+    public AnalyticsController(DemandHeatmapService demandHeatmapService) {
+        this.demandHeatmapService = demandHeatmapService;
+    }
+
+    @Operation(summary = "Get hire demand by hour of week for a game")
+    @GetMapping("/demand-heatmap/games/{gameId}")
+    public ResponseEntity<DemandHeatmapDTO> getGameHeatmap(@PathVariable Long gameId) {
+        return ResponseEntity.ok(demandHeatmapService.getHeatmap(DemandHeatmapService.SCOPE_GAME, gameId));
+    }
+
+    @Operation(summary = "Get hire demand by hour of week for a player")
+    @GetMapping("/demand-heatmap/players/{playerId}")
+    public ResponseEntity<DemandHeatmapDTO> getPlayerHeatmap(@PathVariable Long playerId) {
+        return ResponseEntity.ok(demandHeatmapService.getHeatmap(DemandHeatmapService.SCOPE_PLAYER, playerId));
+    }
+
+    @Operation(summary = "Rebuild demand heatmaps from payments")
+    @PostMapping("/demand-heatmap/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildHeatmaps() {
+        demandHeatmapService.rebuild();
+        return ResponseEntity.ok("Đã dựng lại heatmap");
+    }
+}
@@ -3,8 +3,22 @@ package com.example.backend.controller;
 import com.example.backend.entity.GamePlayer;
 import com.example.backend.service.GamePlayerService;
 import com.example.backend.dto.ApiResponse;
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.GamePlayerCardDTO;
+import com.example.backend.dto.GamePlayerSearchCriteria;
+import com.example.backend.service.GamePlayerSearchService;
+import com.example.backend.dto.FacetSearchResultDTO;
+import com.example.backend.service.GamePlayerFacetService;
+import com.example.backend.dto.TextSearchResultDTO;
+import com.example.backend.service.GamePlayerTextSearchService;
+import com.example.backend.dto.AutocompleteSuggestionDTO;
+import com.example.backend.service.UsernameAutocompleteService;
+import com.example.backend.service.CatalogCacheService;
+import com.example.backend.service.GameCatalogService;
+import com.example.backend.dto.GameCatalogItem;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.Data;
@@ -14,9 +28,8 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Arrays;
-import com.example.backend.entity.Game;
-import com.example.backend.repository.GameRepository;
-import com.example.backend.exception.ResourceNotFoundException;
+import java.util.HashMap;
+import java.util.Map;
 import com.example.backend.service.UserService;
 import com.example.backend.entity.User;
 
@@ -26,13 +39,29 @@ import com.example.backend.entity.User;
 @Tag(name = "Game Player", description = "Game player management APIs")
 public class GamePlayerController {
     private final GamePlayerService gamePlayerService;
-    private final GameRepository gameRepository;
     private final UserService userService;
+    private final GamePlayerSearchService gamePlayerSearchService;
+    private final GamePlayerFacetService gamePlayerFacetService;
+    private final GamePlayerTextSearchService gamePlayerTextSearchService;
+    private final UsernameAutocompleteService usernameAutocompleteService;
+    private final CatalogCacheService catalogCacheService;
+    private final GameCatalogService gameCatalogService;
 
-    public GamePlayerController(GamePlayerService gamePlayerService, GameRepository gameRepository, UserService userService) {
+    public GamePlayerController(GamePlayerService gamePlayerService, UserService userService,
+                                GamePlayerSearchService gamePlayerSearchService,
+                                GamePlayerFacetService gamePlayerFacetService,
+                                GamePlayerTextSearchService gamePlayerTextSearchService,
+                                UsernameAutocompleteService usernameAutocompleteService,
+                                CatalogCacheService catalogCacheService,
+                                GameCatalogService gameCatalogService) {
         this.gamePlayerService = gamePlayerService;
-        this.gameRepository = gameRepository;
         this.userService = userService;
+        this.gamePlayerSearchService = gamePlayerSearchService;
+        this.gamePlayerFacetService = gamePlayerFacetService;
+        this.gamePlayerTextSearchService = gamePlayerTextSearchService;
+        this.usernameAutocompleteService = usernameAutocompleteService;
+        this.catalogCacheService = catalogCacheService;
+        this.gameCatalogService = gameCatalogService;
     }
 
     @Data
@@ -89,28 +118,21 @@ public class GamePlayerController {
             return ResponseEntity.badRequest()
                 .body(new ApiResponse<>(false, "Bạn cần cập nhật đầy đủ thông tin cá nhân trước khi đăng ký làm player!", null));
         }
-        Game game = gameRepository.findById(request.getGameId())
-                .orElseThrow(() -> new ResourceNotFoundException("Game not found"));
+        GameCatalogItem game = gameCatalogService.getById(request.getGameId());
 
-        if (game.getHasRoles()) {
+        if (game.isHasRoles()) {
             if (request.getRole() == null || request.getRole().trim().isEmpty()) {
                 return ResponseEntity.badRequest()
                     .body(new ApiResponse<>(false, "Role is required for this game", null));
             }
-            // Normalize role by trimming and converting to uppercase
-            String normalizedRole = request.getRole().trim().toUpperCase();
-            if (game.getAvailableRoles() != null) {
-                boolean isValidRole = game.getAvailableRoles().stream()
-                    .map(String::trim)
-                    .map(String::toUpperCase)
-                    .anyMatch(role -> role.equals(normalizedRole));
-                if (!isValidRole) {
-                return ResponseEntity.badRequest()
-                        .body(new ApiResponse<>(false, "Invalid role for this game. Available roles: " + 
+            if (!game.getAvailableRoles().isEmpty()) {
+                if (gameCatalogService.matchRole(game, request.getRole()) == null) {
+                    return ResponseEntity.badRequest()
+                        .body(new ApiResponse<>(false, "Invalid role for this game. Available roles: " +
                             String.join(", ", game.getAvailableRoles()), null));
                 }
-                // Use normalized role for saving
-                request.setRole(normalizedRole);
+                // Normalize role by trimming and converting to uppercase
+                request.setRole(request.getRole().trim().toUpperCase());
             }
         }
         // Tạo player từ thông tin user
@@ -153,53 +175,123 @@ public class GamePlayerController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Game player deleted successfully", null));
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search game players by game, rank, role, server, status, price range, minimum rating and free time window")
+    public ResponseEntity<ApiResponse<CursorPage<GamePlayerCardDTO>>> searchGamePlayers(GamePlayerSearchCriteria criteria) {
+        CursorPage<GamePlayerCardDTO> page = gamePlayerSearchService.search(criteria);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", page));
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Browse game players with facet counts (multi-select per facet, status defaults to AVAILABLE)")
+    public ResponseEntity<ApiResponse<FacetSearchResultDTO>> browseGamePlayerFacets(
+            @RequestParam(required = false) List<String> game,
+            @RequestParam(required = false) List<String> rank,
+            @RequestParam(required = false) List<String> role,
+            @RequestParam(required = false) List<String> server,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        Map<String, List<String>> filters = new HashMap<>();
+        filters.put(GamePlayerFacetService.GAME, game);
+        filters.put(GamePlayerFacetService.RANK, rank);
+        filters.put(GamePlayerFacetService.ROLE, role);
+        filters.put(GamePlayerFacetService.SERVER, server);
+        filters.put(GamePlayerFacetService.STATUS, status == null || status.isEmpty() ? List.of("AVAILABLE") : status);
+        filters.put(GamePlayerFacetService.PRICE, price);
+        FacetSearchResultDTO result = gamePlayerFacetService.search(filters, offset, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", result));
+    }
+
+    @GetMapping("/text-search")
+    @Operation(summary = "Full-text search over game player username and description (accent-insensitive, BM25 ranked)")
+    public ResponseEntity<ApiResponse<TextSearchResultDTO>> textSearchGamePlayers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        TextSearchResultDTO result = gamePlayerTextSearchService.search(q, offset, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", result));
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Suggest game player usernames by prefix, most popular first")
+    public ResponseEntity<ApiResponse<List<AutocompleteSuggestionDTO>>> autocompleteGamePlayers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<AutocompleteSuggestionDTO> suggestions = usernameAutocompleteService.suggestGamePlayers(q, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Suggestions retrieved successfully", suggestions));
+    }
+
     @GetMapping("/game/{gameId}")
     @Operation(summary = "Get game players by game")
-    public ResponseEntity<ApiResponse<List<GamePlayer>>> getGamePlayersByGame(@PathVariable Long gameId) {
-        List<GamePlayer> gamePlayers = gamePlayerService.getGamePlayersByGame(gameId);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", gamePlayers));
+    public ResponseEntity<ApiResponse<CursorPage<GamePlayerCardDTO>>> getGamePlayersByGame(
+            @PathVariable Long gameId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<GamePlayerCardDTO> page = gamePlayerService.getCardsByGame(gameId, cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", page));
     }
 
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get game players by user")
-    public ResponseEntity<ApiResponse<List<GamePlayer>>> getGamePlayersByUser(@PathVariable Long userId) {
-        List<GamePlayer> gamePlayers = gamePlayerService.getGamePlayersByUser(userId);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", gamePlayers));
+    public ResponseEntity<ApiResponse<CursorPage<GamePlayerCardDTO>>> getGamePlayersByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<GamePlayerCardDTO> page = gamePlayerService.getCardsByUser(userId, cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", page));
     }
 
     @GetMapping("/status/{status}")
     @Operation(summary = "Get game players by status")
-    public ResponseEntity<ApiResponse<List<GamePlayer>>> getGamePlayersByStatus(@PathVariable String status) {
-        List<GamePlayer> gamePlayers = gamePlayerService.getGamePlayersByStatus(status);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", gamePlayers));
+    public ResponseEntity<ApiResponse<CursorPage<GamePlayerCardDTO>>> getGamePlayersByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<GamePlayerCardDTO> page = gamePlayerService.getCardsByStatus(status, cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", page));
     }
 
     @GetMapping("/rank/{rank}")
     @Operation(summary = "Get game players by rank")
-    public ResponseEntity<ApiResponse<List<GamePlayer>>> getGamePlayersByRank(@PathVariable String rank) {
-        List<GamePlayer> gamePlayers = gamePlayerService.getGamePlayersByRank(rank);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", gamePlayers));
+    public ResponseEntity<ApiResponse<CursorPage<GamePlayerCardDTO>>> getGamePlayersByRank(
+            @PathVariable String rank,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<GamePlayerCardDTO> page = gamePlayerService.getCardsByRank(rank, cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", page));
     }
 
     @GetMapping("/role/{role}")
     @Operation(summary = "Get game players by role")
-    public ResponseEntity<ApiResponse<List<GamePlayer>>> getGamePlayersByRole(@PathVariable String role) {
-        List<GamePlayer> gamePlayers = gamePlayerService.getGamePlayersByRole(role);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", gamePlayers));
+    public ResponseEntity<ApiResponse<CursorPage<GamePlayerCardDTO>>> getGamePlayersByRole(
+            @PathVariable String role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<GamePlayerCardDTO> page = gamePlayerService.getCardsByRole(role, cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", page));
     }
 
     @GetMapping("/server/{server}")
     @Operation(summary = "Get game players by server")
-    public ResponseEntity<ApiResponse<List<GamePlayer>>> getGamePlayersByServer(@PathVariable String server) {
-        List<GamePlayer> gamePlayers = gamePlayerService.getGamePlayersByServer(server);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", gamePlayers));
+    public ResponseEntity<ApiResponse<CursorPage<GamePlayerCardDTO>>> getGamePlayersByServer(
+            @PathVariable String server,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<GamePlayerCardDTO> page = gamePlayerService.getCardsByServer(server, cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Game players retrieved successfully", page));
     }
 
     @GetMapping("/available")
     @Operation(summary = "Get available game players")
-    public ResponseEntity<ApiResponse<List<GamePlayer>>> getAvailableGamePlayers() {
-        List<GamePlayer> gamePlayers = gamePlayerService.getAvailableGamePlayers();
-        return ResponseEntity.ok(new ApiResponse<>(true, "Available game players retrieved successfully", gamePlayers));
+    public ResponseEntity<byte[]> getAvailableGamePlayers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request) {
+        return catalogCacheService.respond(CatalogCacheService.AVAILABLE_PLAYERS, true, request,
+                () -> new ApiResponse<>(true, "Available game players retrieved successfully",
+                        gamePlayerService.getAvailableCards(cursor, size)));
     }
 
     @PostMapping("/{id}/hire")
@@ -242,8 +334,10 @@ public class GamePlayerController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<GamePlayer>>> getAllGamePlayers() {
-        List<GamePlayer> gamePlayers = gamePlayerService.getAllGamePlayers();
-        return ResponseEntity.ok(new ApiResponse<>(true, "All game players retrieved successfully", gamePlayers));
+    public ResponseEntity<ApiResponse<CursorPage<GamePlayerCardDTO>>> getAllGamePlayers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<GamePlayerCardDTO> page = gamePlayerService.getAllCards(cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, "All game players retrieved successfully", page));
     }
 } 
\ No newline at end of file
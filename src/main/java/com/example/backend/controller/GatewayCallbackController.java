@@ -0,0 +1,52 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.GatewayCallbackRequest;
+import com.example.backend.service.GatewayCallbackService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/payments/callbacks")
+@Tag(name = "Payment Gateway Callback", description = "Payment gateway webhook APIs")
+public class GatewayCallbackController {
+    private final GatewayCallbackService gatewayCallbackService;
+
+    public GatewayCallbackController(GatewayCallbackService gatewayCallbackService) {
+        this.gatewayCallbackService = gatewayCallbackService;
+    }
+
+    @Operation(summary = "Receive a payment gateway callback")
+    @PostMapping("/{provider}")
+    public ResponseEntity<?> receiveCallback(
+            @PathVariable String provider,
+            @Valid @RequestBody GatewayCallbackRequest request) {
+        if (!gatewayCallbackService.isSupported(provider)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!gatewayCallbackService.isEnabled(provider)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Provider is not configured");
+        }
+        if (!gatewayCallbackService.verifySignature(provider, request)) {
+            gatewayCallbackService.countRejected();
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid signature");
+        }
+        if (!gatewayCallbackService.enqueue(provider, request)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Callback queue is full, please retry");
+        }
+        return ResponseEntity.accepted().body(Map.of("received", true));
+    }
+
+    @Operation(summary = "Get callback ingestion queue status")
+    @GetMapping("/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(gatewayCallbackService.getStatus());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.GatewayCallbackRequest;
+import com.example.backend.service.GatewayCallbackService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Giả lập gateway để load test: bắn hàng loạt callback đã ký vào endpoint callback của chính server.
+// Chỉ bật với profile "gateway-simulator".
+@RestController
+@RequestMapping("/api/simulator/gateway")
+@Profile("gateway-simulator")
+public class GatewaySimulatorController {
+    private final GatewayCallbackService gatewayCallbackService;
+    private final WebClient webClient;
+
+    public GatewaySimulatorController(GatewayCallbackService gatewayCallbackService,
+                                      @Value("${server.port:8080}") int serverPort) {
+        this.gatewayCallbackService = gatewayCallbackService;
+        this.webClient = WebClient.create("http://localhost:" + serverPort);
+    }
+
+    @Operation(summary = "Fire a burst of signed gateway callbacks at this server")
+    @PostMapping("/{provider}/burst")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> burst(
+            @PathVariable String provider,
+            @RequestParam(defaultValue = "1000") int count,
+            @RequestParam(defaultValue = "50") int concurrency,
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "10000") BigDecimal amount,
+            @RequestParam(required = false) String transactionId) {
+        if (!gatewayCallbackService.isEnabled(provider)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Provider is not configured");
+        }
+        AtomicLong ok = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long started = System.currentTimeMillis();
+
+        Flux.range(0, count)
+            .flatMap(i -> send(provider, userId, amount,
+                        transactionId != null ? transactionId : "TXN_SIM" + started + i)
+                    .doOnNext(status -> (status < 300 ? ok : errors).incrementAndGet())
+                    .onErrorResume(e -> {
+                        errors.incrementAndGet();
+                        return Mono.empty();
+                    }),
+                concurrency)
+            .blockLast();
+
+        long elapsed = System.currentTimeMillis() - started;
+        return ResponseEntity.ok(Map.of(
+            "sent", count,
+            "accepted", ok.get(),
+            "errors", errors.get(),
+            "elapsedMillis", elapsed,
+            "callbacksPerSecond", elapsed > 0 ? count * 1000L / elapsed : count
+        ));
+    }
+
+    private Mono<Integer> send(String provider, Long userId, BigDecimal amount, String transactionId) {
+        GatewayCallbackRequest request = new GatewayCallbackRequest();
+        request.setTransactionId(transactionId);
+        request.setUserId(userId);
+        request.setAmount(amount);
+        request.setStatus("SUCCESS");
+        request.setGatewayReference("SIM-" + transactionId);
+        request.setSignature(gatewayCallbackService.sign(provider, request));
+
+        return webClient.post()
+            .uri("/api/payments/callbacks/{provider}", provider)
+            .bodyValue(request)
+            .exchangeToMono(response -> response.releaseBody()
+                .thenReturn(response.statusCode().value()));
+    }
+}
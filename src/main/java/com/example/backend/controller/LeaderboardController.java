@@ -0,0 +1,44 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.LeaderboardEntryDTO;
+import com.example.backend.service.LeaderboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leaderboards")
+@CrossOrigin(origins = "http://localhost:3000")
+@Tag(name = "Leaderboard", description = "Player leaderboard APIs")
+public class LeaderboardController {
+    private final LeaderboardService leaderboardService;
+
+    public LeaderboardController(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @Operation(summary = "Get top players of a leaderboard (earnings, hire-hours, rating, followers)")
+    @GetMapping("/{board}")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getTop(
+            @PathVariable String board,
+            @RequestParam(required = false) Long gameId,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(leaderboardService.getTop(
+            LeaderboardService.Board.fromPath(board), gameId, offset, limit));
+    }
+
+    @Operation(summary = "Get rank of a player on a leaderboard")
+    @GetMapping("/{board}/players/{playerId}")
+    public ResponseEntity<LeaderboardEntryDTO> getRank(
+            @PathVariable String board,
+            @PathVariable Long playerId,
+            @RequestParam(required = false) Long gameId) {
+        LeaderboardEntryDTO entry = leaderboardService.getRank(
+            LeaderboardService.Board.fromPath(board), gameId, playerId);
+        return entry == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(entry);
+    }
+}
@@ -7,11 +7,15 @@ import com.example.backend.entity.User;
 import com.example.backend.exception.ResourceNotFoundException;
 import com.example.backend.exception.PaymentException;
 import com.example.backend.entity.PlayerReview;
+import com.example.backend.entity.PlayerStats;
 import com.example.backend.repository.PlayerReviewRepository;
 import com.example.backend.repository.PaymentRepository;
 import com.example.backend.service.QRCodeService;
 import com.example.backend.dto.ReviewRequest;
 import com.example.backend.dto.PlayerStatsDTO;
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.PendingDeposit;
+import com.example.backend.dto.PaymentSummaryDTO;
 import com.example.backend.entity.PlayerFollow;
 import com.example.backend.repository.PlayerFollowRepository;
 import com.example.backend.entity.UserBlock;
@@ -19,10 +23,22 @@ import com.example.backend.entity.Notification;
 import com.example.backend.repository.UserBlockRepository;
 import com.example.backend.repository.NotificationRepository;
 import com.example.backend.service.NotificationService;
+import com.example.backend.service.HireLifecycleService;
+import com.example.backend.service.PaymentExportService;
+import com.example.backend.service.DepositService;
+import com.example.backend.service.BankReconciliationService;
+import com.example.backend.service.PayoutService;
+import com.example.backend.service.PlayerStatsService;
+import com.example.backend.dto.PayoutBatchSummary;
+import com.example.backend.dto.ReconciliationSummary;
+import com.example.backend.event.HireCanceledEvent;
+import com.example.backend.event.HireCreatedEvent;
+import com.example.backend.event.PlayerReviewCreatedEvent;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -32,18 +48,27 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Size;
 
 import lombok.Data;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -56,17 +81,38 @@ public class PaymentController {
     private final QRCodeService qrCodeService;
     private final PlayerReviewRepository playerReviewRepository;
     private final NotificationService notificationService;
+    private final HireLifecycleService hireLifecycleService;
+    private final PaymentExportService paymentExportService;
+    private final DepositService depositService;
+    private final BankReconciliationService bankReconciliationService;
+    private final PayoutService payoutService;
+    private final PlayerStatsService playerStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PaymentController(PaymentService paymentService, UserService userService, 
                            PaymentRepository paymentRepository, QRCodeService qrCodeService,
                            PlayerReviewRepository playerReviewRepository,
-                           NotificationService notificationService) {
+                           NotificationService notificationService,
+                           HireLifecycleService hireLifecycleService,
+                           PaymentExportService paymentExportService,
+                           DepositService depositService,
+                           BankReconciliationService bankReconciliationService,
+                           PayoutService payoutService,
+                           PlayerStatsService playerStatsService,
+                           ApplicationEventPublisher eventPublisher) {
         this.paymentService = paymentService;
         this.userService = userService;
         this.paymentRepository = paymentRepository;
         this.qrCodeService = qrCodeService;
         this.playerReviewRepository = playerReviewRepository;
         this.notificationService = notificationService;
+        this.hireLifecycleService = hireLifecycleService;
+        this.paymentExportService = paymentExportService;
+        this.depositService = depositService;
+        this.bankReconciliationService = bankReconciliationService;
+        this.payoutService = payoutService;
+        this.playerStatsService = playerStatsService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Operation(summary = "Create a new payment")
@@ -94,10 +140,9 @@ public class PaymentController {
     @PostMapping("/{id}/process")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Payment> processPayment(
-            @Parameter(description = "Payment ID") @PathVariable Long id,
-            @Valid @RequestBody ProcessPaymentRequest request) {
+            @Parameter(description = "Payment ID") @PathVariable Long id) {
         try {
-            Payment payment = paymentService.processPayment(id, request.getTransactionId());
+            Payment payment = paymentService.processPayment(id);
             return ResponseEntity.ok(payment);
         } catch (PaymentException e) {
             return ResponseEntity.badRequest().build();
@@ -121,9 +166,12 @@ public class PaymentController {
     @Operation(summary = "Get user payments")
     @GetMapping("/user")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<Payment>> getUserPayments(Authentication authentication) {
+    public ResponseEntity<CursorPage<PaymentSummaryDTO>> getUserPayments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
         User user = userService.findByUsername(authentication.getName());
-        return ResponseEntity.ok(paymentService.getUserPayments(user.getId()));
+        return ResponseEntity.ok(paymentService.getUserPaymentPage(user.getId(), cursor, size));
     }
 
     @Operation(summary = "Get game player payments")
@@ -148,6 +196,29 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getPaymentsByDateRange(start, end));
     }
 
+    @Operation(summary = "Export payments by date range as streaming CSV")
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportPayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        String fileName = "payments_" + start.toLocalDate() + "_" + end.toLocalDate() + (gzip ? ".csv.gz" : ".csv");
+        response.setContentType(gzip ? "application/gzip" : "text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+            paymentExportService.exportCsv(start, end, gzipOut);
+            gzipOut.finish();
+        } else {
+            paymentExportService.exportCsv(start, end, out);
+        }
+        out.flush();
+    }
+
     @PostMapping("/topup")
     @PreAuthorize("isAuthenticated()")
     @Transactional
@@ -244,6 +315,8 @@ public class PaymentController {
         payment.setEndTime(request.getEndTime());
         payment.setHireStatus("ACTIVE");
         payment = paymentRepository.save(payment);
+        eventPublisher.publishEvent(new HireCreatedEvent(payment.getId(), player.getId(), user.getId(),
+            amount, payment.getStartTime(), payment.getEndTime(), payment.getCreatedAt()));
 
         return ResponseEntity.ok(Map.of(
             "message", "Thuê player thành công",
@@ -284,27 +357,41 @@ public class PaymentController {
         // Cập nhật trạng thái
         payment.setHireStatus("CANCELED");
         paymentRepository.save(payment);
+        eventPublisher.publishEvent(new HireCanceledEvent(payment.getId(), hiredPlayer.getId(), hirer.getId(),
+            payment.getAmount(), payment.getStartTime(), payment.getEndTime(), payment.getCreatedAt()));
 
         return ResponseEntity.ok("Hủy hợp đồng thành công");
     }
 
     @GetMapping("/hire/history")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> getHireHistory(Authentication authentication) {
+    public ResponseEntity<?> getHireHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
         User user = userService.findByUsername(authentication.getName());
-        List<Payment> hires = paymentRepository.findByUserIdAndTypeOrderByCreatedAtDesc(user.getId(), "HIRE");
-        return ResponseEntity.ok(hires);
+        return ResponseEntity.ok(paymentService.getHireHistory(user.getId(), cursor, size));
     }
 
     @GetMapping("/hire/player/{playerId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> getPlayerHireHistory(@PathVariable Long playerId) {
-        List<Payment> hires = paymentRepository.findByPlayerIdAndTypeOrderByCreatedAtDesc(playerId, "HIRE");
-        return ResponseEntity.ok(hires);
+    public ResponseEntity<?> getPlayerHireHistory(
+            @PathVariable Long playerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(paymentService.getPlayerHireHistory(playerId, cursor, size));
+    }
+
+    @Operation(summary = "Get hire lifecycle sweeper status")
+    @GetMapping("/hire/sweeper-status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSweeperStatus() {
+        return ResponseEntity.ok(hireLifecycleService.getStatus());
     }
 
     @PostMapping("/hire/{paymentId}/review")
     @PreAuthorize("isAuthenticated()")
+    @Transactional
     public ResponseEntity<?> reviewPlayer(
             @PathVariable Long paymentId,
             @Valid @RequestBody ReviewRequest request,
@@ -335,7 +422,9 @@ public class PaymentController {
         review.setReviewer(reviewer);
         review.setRating(request.getRating());
         review.setComment(request.getComment());
-        playerReviewRepository.save(review);
+        review = playerReviewRepository.save(review);
+        eventPublisher.publishEvent(new PlayerReviewCreatedEvent(review.getId(),
+            review.getPlayer().getId(), reviewer.getId(), review.getRating()));
 
         return ResponseEntity.ok("Đánh giá thành công");
     }
@@ -343,12 +432,12 @@ public class PaymentController {
     @GetMapping("/hire/player/{playerId}/reviews")
     public ResponseEntity<?> getPlayerReviews(@PathVariable Long playerId) {
         List<PlayerReview> reviews = playerReviewRepository.findByPlayerId(playerId);
-        Double averageRating = playerReviewRepository.getAverageRatingByPlayerId(playerId);
-        int reviewCount = reviews.size();
+        PlayerStats stats = playerStatsService.getStatsRow(playerId);
         return ResponseEntity.ok(Map.of(
             "reviews", reviews,
-            "averageRating", averageRating != null ? averageRating : 0.0,
-            "reviewCount", reviewCount
+            "averageRating", playerStatsService.averageRating(stats),
+            "reviewCount", stats.getReviewCount(),
+            "ratingHistogram", playerStatsService.ratingHistogram(stats)
         ));
     }
 
@@ -361,18 +450,33 @@ public class PaymentController {
         if (player.getWalletBalance().compareTo(amount) < 0) {
             return ResponseEntity.badRequest().body("Số dư không đủ");
         }
+        // Giữ tiền ngay, yêu cầu ở trạng thái PENDING đến khi lô payout kế tiếp quyết toán
         player.setWalletBalance(player.getWalletBalance().subtract(amount));
         userService.save(player);
         Payment payment = new Payment();
         payment.setUser(player);
         payment.setAmount(amount);
         payment.setCurrency("VND");
-        payment.setStatus("COMPLETED");
+        payment.setStatus("PENDING");
         payment.setPaymentMethod("WITHDRAW");
         payment.setType("WITHDRAW");
         payment.setCreatedAt(java.time.LocalDateTime.now());
         paymentRepository.save(payment);
-        return ResponseEntity.ok("Rút tiền thành công");
+        return ResponseEntity.ok("Yêu cầu rút tiền đã được ghi nhận, tiền sẽ được chuyển trong đợt thanh toán kế tiếp");
+    }
+
+    @Operation(summary = "Settle pending withdrawals as one payout batch")
+    @PostMapping("/payouts/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PayoutBatchSummary> runPayoutBatch() {
+        return ResponseEntity.ok(payoutService.settleWindow());
+    }
+
+    @Operation(summary = "Run bank statement reconciliation on the inbox directory")
+    @PostMapping("/reconciliation/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ReconciliationSummary>> runReconciliation() {
+        return ResponseEntity.ok(bankReconciliationService.runInbox());
     }
 
     @Operation(summary = "Get user wallet balance")
@@ -383,6 +487,34 @@ public class PaymentController {
         return ResponseEntity.ok(user.getWalletBalance());
     }
 
+    @Operation(summary = "Get deposit QR code as an image (PNG or SVG)")
+    @GetMapping("/deposit/qr")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<byte[]> getDepositQRCode(
+            @RequestParam String transactionId,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestParam(defaultValue = "300") int size,
+            Authentication authentication) throws Exception {
+        User user = userService.findByUsername(authentication.getName());
+        // Chỉ render QR cho intent nạp tiền PENDING của chính người gọi, phương thức và số tiền lấy từ intent
+        PendingDeposit deposit = depositService.findOwnPendingDeposit(user.getId(), transactionId)
+            .orElseThrow(() -> new ResourceNotFoundException("Pending deposit not found"));
+        // Chuyển khoản ngân hàng không có QR
+        if (!qrCodeService.hasQRCode(deposit.getPaymentMethod())) {
+            return ResponseEntity.notFound().build();
+        }
+        String content = qrCodeService.buildPaymentContent(
+            deposit.getPaymentMethod(), deposit.getAmount(), user.getId().toString(), transactionId);
+
+        int side = Math.max(100, Math.min(size, 1000));
+        boolean svg = "svg".equalsIgnoreCase(format);
+        byte[] image = svg ? qrCodeService.renderSvg(content, side) : qrCodeService.renderPng(content, side, side);
+        return ResponseEntity.ok()
+            .contentType(svg ? MediaType.valueOf("image/svg+xml") : MediaType.IMAGE_PNG)
+            .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate())
+            .body(image);
+    }
+
     @PostMapping("/deposit")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> deposit(@RequestBody DepositRequest request, Authentication authentication) {
@@ -396,7 +528,8 @@ public class PaymentController {
         }
 
         String method = request.getMethod().toUpperCase();
-        String transactionId = "TXN_" + System.currentTimeMillis();
+        // UUID để hai yêu cầu trong cùng mili giây không trùng mã (đối soát/callback khớp theo mã này)
+        String transactionId = "TXN_" + UUID.randomUUID().toString().replace("-", "").toUpperCase();
         
         try {
             switch (method) {
@@ -405,7 +538,7 @@ public class PaymentController {
                 case "ZALOPAY":
                     String qrCode = qrCodeService.generatePaymentQRCode(
                         method,
-                        request.getAmount().toString(),
+                        request.getAmount(),
                         user.getId().toString(),
                         transactionId
                     );
@@ -424,6 +557,9 @@ public class PaymentController {
                     response.setMessage("Phương thức thanh toán không hợp lệ!");
                     return ResponseEntity.badRequest().body(response);
             }
+            // Lưu yêu cầu nạp PENDING để đối soát/callback cộng tiền sau
+            depositService.createIntent(user, method, request.getAmount(), transactionId);
+            response.setTransactionId(transactionId);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             response.setMessage("Lỗi khi tạo mã QR: " + e.getMessage());
@@ -448,12 +584,6 @@ class PaymentRequest {
     private String paymentMethod;
 }
 
-@Data
-class ProcessPaymentRequest {
-    @NotBlank(message = "Transaction ID is required")
-    private String transactionId;
-}
-
 @Data
 class RefundRequest {
     @NotBlank(message = "Reason is required")
@@ -498,6 +628,7 @@ class DepositRequest {
 @Data
 class DepositResponse {
     private String qrCode;  // Base64 encoded QR code image
+    private String transactionId;
     private String message;
     private String bankAccount;
     private String bankName;
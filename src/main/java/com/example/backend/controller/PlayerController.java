@@ -1,15 +1,24 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.GamePlayerCardDTO;
 import com.example.backend.dto.PlayerStatsDTO;
+import com.example.backend.dto.SimilarPlayerDTO;
 import com.example.backend.entity.*;
 import com.example.backend.repository.*;
+import com.example.backend.event.UserBlockChangedEvent;
+import com.example.backend.service.PlayerFollowService;
+import com.example.backend.service.PlayerSuggestionService;
+import com.example.backend.service.CoHireRecommendationService;
+import com.example.backend.service.CatalogCacheService;
+import com.example.backend.service.GameCatalogService;
 import com.example.backend.service.PlayerStatsService;
 import com.example.backend.service.UserService;
 import com.example.backend.service.GamePlayerService;
 import com.example.backend.service.NotificationService;
-import com.example.backend.exception.ResourceNotFoundException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -19,6 +28,7 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -42,9 +52,14 @@ public class PlayerController {
     private final NotificationRepository notificationRepository;
     private final PlayerReviewRepository playerReviewRepository;
     private final GamePlayerService gamePlayerService;
-    private final PaymentRepository paymentRepository;
     private final GameRepository gameRepository;
     private final NotificationService notificationService;
+    private final PlayerFollowService playerFollowService;
+    private final PlayerSuggestionService playerSuggestionService;
+    private final CoHireRecommendationService coHireRecommendationService;
+    private final CatalogCacheService catalogCacheService;
+    private final GameCatalogService gameCatalogService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final int MAX_FOLLOWING = 1000; // Giới hạn số người theo dõi
 
@@ -55,9 +70,14 @@ public class PlayerController {
                           NotificationRepository notificationRepository,
                           PlayerReviewRepository playerReviewRepository,
                           GamePlayerService gamePlayerService,
-                          PaymentRepository paymentRepository,
                           GameRepository gameRepository,
-                          NotificationService notificationService) {
+                          NotificationService notificationService,
+                          PlayerFollowService playerFollowService,
+                          PlayerSuggestionService playerSuggestionService,
+                          CoHireRecommendationService coHireRecommendationService,
+                          CatalogCacheService catalogCacheService,
+                          GameCatalogService gameCatalogService,
+                          ApplicationEventPublisher eventPublisher) {
         this.userService = userService;
         this.playerStatsService = playerStatsService;
         this.playerFollowRepository = playerFollowRepository;
@@ -65,9 +85,14 @@ public class PlayerController {
         this.notificationRepository = notificationRepository;
         this.playerReviewRepository = playerReviewRepository;
         this.gamePlayerService = gamePlayerService;
-        this.paymentRepository = paymentRepository;
         this.gameRepository = gameRepository;
         this.notificationService = notificationService;
+        this.playerFollowService = playerFollowService;
+        this.playerSuggestionService = playerSuggestionService;
+        this.coHireRecommendationService = coHireRecommendationService;
+        this.catalogCacheService = catalogCacheService;
+        this.gameCatalogService = gameCatalogService;
+        this.eventPublisher = eventPublisher;
     }
 
     @GetMapping("/{playerId}/stats")
@@ -108,10 +133,7 @@ public class PlayerController {
             return ResponseEntity.badRequest().body("Đã đạt giới hạn số người theo dõi (" + MAX_FOLLOWING + ")");
         }
 
-        PlayerFollow follow = new PlayerFollow();
-        follow.setFollower(follower);
-        follow.setGamePlayer(gamePlayer);
-        playerFollowRepository.save(follow);
+        playerFollowService.follow(follower, gamePlayer);
 
         // Gửi push notification cho user được follow
         User followedUser = gamePlayer.getUser();
@@ -134,11 +156,9 @@ public class PlayerController {
     public ResponseEntity<?> unfollowPlayer(@PathVariable Long gamePlayerId, Authentication authentication) {
         User follower = userService.findByUsername(authentication.getName());
 
-        if (!playerFollowRepository.existsByFollowerIdAndGamePlayerId(follower.getId(), gamePlayerId)) {
+        if (!playerFollowService.unfollow(follower.getId(), gamePlayerId)) {
             return ResponseEntity.badRequest().body("Chưa theo dõi người chơi này");
         }
-
-        playerFollowRepository.deleteByFollowerIdAndGamePlayerId(follower.getId(), gamePlayerId);
         return ResponseEntity.ok("Bỏ theo dõi thành công");
     }
 
@@ -165,12 +185,9 @@ public class PlayerController {
         userBlockRepository.save(block);
 
         // Hủy theo dõi nếu đang theo dõi
-        if (playerFollowRepository.existsByFollowerIdAndGamePlayerId(blocker.getId(), playerId)) {
-            playerFollowRepository.deleteByFollowerIdAndGamePlayerId(blocker.getId(), playerId);
-        }
-        if (playerFollowRepository.existsByFollowerIdAndGamePlayerId(playerId, blocker.getId())) {
-            playerFollowRepository.deleteByFollowerIdAndGamePlayerId(playerId, blocker.getId());
-        }
+        playerFollowService.unfollow(blocker.getId(), playerId);
+        playerFollowService.unfollow(playerId, blocker.getId());
+        eventPublisher.publishEvent(new UserBlockChangedEvent(blocker.getId(), playerId, true));
 
         return ResponseEntity.ok("Chặn người chơi thành công");
     }
@@ -187,6 +204,7 @@ public class PlayerController {
         }
 
         userBlockRepository.deleteByBlockerIdAndBlockedId(blocker.getId(), playerId);
+        eventPublisher.publishEvent(new UserBlockChangedEvent(blocker.getId(), playerId, false));
         return ResponseEntity.ok("Bỏ chặn người chơi thành công");
     }
 
@@ -194,18 +212,10 @@ public class PlayerController {
     @Operation(summary = "Get popular players")
     public ResponseEntity<?> getPopularPlayers(
             @RequestParam(defaultValue = "10") int limit,
-            @RequestParam(defaultValue = "0") int offset) {
-        
-        List<Object[]> popularPlayers = playerFollowRepository.findPopularPlayers(limit, offset);
-        
-        return ResponseEntity.ok(popularPlayers.stream()
-            .map(p -> Map.of(
-                "playerId", p[0],
-                "username", p[1],
-                "followerCount", p[2],
-                "averageRating", p[3]
-            ))
-            .collect(Collectors.toList()));
+            @RequestParam(required = false) String cursor,
+            HttpServletRequest request) {
+        return catalogCacheService.respond(CatalogCacheService.POPULAR_PLAYERS, false, request,
+                () -> playerFollowService.getPopularPlayers(limit, cursor));
     }
 
     @GetMapping("/suggestions")
@@ -213,18 +223,15 @@ public class PlayerController {
     @Operation(summary = "Get player suggestions")
     public ResponseEntity<?> getPlayerSuggestions(Authentication authentication) {
         User user = userService.findByUsername(authentication.getName());
-        
-        List<Object[]> suggestions = playerFollowRepository.findSuggestedPlayers(user.getId());
-        
-        return ResponseEntity.ok(suggestions.stream()
-            .map(s -> Map.of(
-                "playerId", s[0],
-                "username", s[1],
-                "followerCount", s[2],
-                "averageRating", s[3],
-                "commonFollowers", s[4]
-            ))
-            .collect(Collectors.toList()));
+        return ResponseEntity.ok(playerSuggestionService.getSuggestions(user.getId()));
+    }
+
+    @GetMapping("/{playerId}/similar")
+    @Operation(summary = "Get players frequently hired by the same hirers")
+    public ResponseEntity<List<SimilarPlayerDTO>> getSimilarPlayers(
+            @PathVariable Long playerId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(coHireRecommendationService.getSimilarPlayers(playerId, limit));
     }
 
     @GetMapping("/{gamePlayerId}/followers")
@@ -317,14 +324,18 @@ public class PlayerController {
 
     @GetMapping
     @Operation(summary = "Get all players")
-    public ResponseEntity<List<GamePlayer>> getAllPlayers() {
-        return ResponseEntity.ok(gamePlayerService.findAll());
+    public ResponseEntity<CursorPage<GamePlayerCardDTO>> getAllPlayers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(gamePlayerService.getAllCards(cursor, size));
     }
 
     @GetMapping("/available")
     @Operation(summary = "Get available game players")
-    public ResponseEntity<List<GamePlayer>> getAvailablePlayers() {
-        return ResponseEntity.ok(gamePlayerService.findByStatus("AVAILABLE"));
+    public ResponseEntity<CursorPage<GamePlayerCardDTO>> getAvailablePlayers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(gamePlayerService.getAvailableCards(cursor, size));
     }
 
     @GetMapping("/{id}")
@@ -379,7 +390,7 @@ public class PlayerController {
     @GetMapping("/{gamePlayerId}/followers/count")
     @Operation(summary = "Get follower count of a game player")
     public ResponseEntity<?> getPlayerFollowerCount(@PathVariable Long gamePlayerId) {
-        Long followerCount = playerFollowRepository.countFollowersByGamePlayerId(gamePlayerId);
+        Long followerCount = playerFollowService.getFollowerCount(gamePlayerId);
         return ResponseEntity.ok(Map.of(
             "gamePlayerId", gamePlayerId,
             "followerCount", followerCount
@@ -389,11 +400,7 @@ public class PlayerController {
     @GetMapping("/{gamePlayerId}/hire-hours")
     @Operation(summary = "Get total hire hours of a game player")
     public ResponseEntity<?> getPlayerTotalHireHours(@PathVariable Long gamePlayerId) {
-        List<Payment> hires = paymentRepository.findByPlayerIdAndTypeOrderByCreatedAtDesc(gamePlayerId, "HIRE");
-        int totalHours = hires.stream()
-            .filter(h -> h.getStartTime() != null && h.getEndTime() != null)
-            .mapToInt(h -> (int) java.time.Duration.between(h.getStartTime(), h.getEndTime()).toHours())
-            .sum();
+        long totalHours = playerStatsService.getTotalHireHours(gamePlayerId);
         return ResponseEntity.ok(Map.of(
             "gamePlayerId", gamePlayerId,
             "totalHireHours", totalHours
@@ -402,8 +409,7 @@ public class PlayerController {
 
     private void updateGamePlayerFromRequest(GamePlayer gamePlayer, GamePlayerRequest request) {
         User user = userService.findById(request.getUserId());
-        Game game = gameRepository.findById(request.getGameId())
-            .orElseThrow(() -> new ResourceNotFoundException("Game not found"));
+        Game game = gameRepository.getReferenceById(gameCatalogService.getById(request.getGameId()).getId());
 
         gamePlayer.setUser(user);
         gamePlayer.setGame(game);
@@ -0,0 +1,50 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.RevenueTotalDTO;
+import com.example.backend.service.PaymentRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/revenue")
+@CrossOrigin(origins = "http://localhost:3000")
+@Tag(name = "Revenue", description = "Revenue reporting APIs")
+public class RevenueController {
+    private final PaymentRollupService paymentRollupService;
+
+    public RevenueController(PaymentRollupService paymentRollupService) {
+        this.paymentRollupService = paymentRollupService;
+    }
+
+    @Operation(summary = "Get revenue totals for a period from daily rollups")
+    @GetMapping("/totals")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<RevenueTotalDTO>> getTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String type) {
+        return ResponseEntity.ok(paymentRollupService.getTotals(from, to, type));
+    }
+
+    @Operation(summary = "Rebuild daily rollups for a date range from payments")
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int chunks = paymentRollupService.rebuild(from, to);
+        return ResponseEntity.ok(Map.of(
+            "from", from,
+            "to", to,
+            "chunks", chunks
+        ));
+    }
+}
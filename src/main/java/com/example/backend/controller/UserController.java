@@ -1,19 +1,31 @@
 package com.example.backend.controller;
 
 import com.example.backend.entity.User;
+import com.example.backend.dto.AutocompleteSuggestionDTO;
 import com.example.backend.service.UserService;
+import com.example.backend.service.UsernameAutocompleteService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
     private final UserService userService;
+    private final UsernameAutocompleteService usernameAutocompleteService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UsernameAutocompleteService usernameAutocompleteService) {
         this.userService = userService;
+        this.usernameAutocompleteService = usernameAutocompleteService;
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestionDTO>> autocompleteUsernames(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(usernameAutocompleteService.suggestUsers(q, limit));
     }
 
     @GetMapping("/{userId}")
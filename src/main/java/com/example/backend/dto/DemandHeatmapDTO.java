@@ -0,0 +1,26 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandHeatmapDTO {
+    private String scope; // GAME, PLAYER
+    private Long scopeId;
+    private long[][] matrix; // [thứ 0 = thứ Hai][giờ 0-23]
+    private long totalHires;
+    private List<Slot> bestHours;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Slot {
+        private Integer dayOfWeek; // 1 = thứ Hai
+        private Integer hour;
+        private Long hires;
+    }
+}
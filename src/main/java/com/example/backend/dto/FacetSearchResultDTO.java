@@ -0,0 +1,16 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetSearchResultDTO {
+    private Integer total;
+    private Map<String, Map<String, Integer>> facets; // facet -> giá trị -> số game player
+    private List<GamePlayerCardDTO> items;
+}
@@ -0,0 +1,23 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+// Một game trong ảnh chụp danh mục; bất biến, danh sách role/rank đã nạp sẵn
+@Getter
+@AllArgsConstructor
+public class GameCatalogItem {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final String category;
+    private final String platform;
+    private final String status;
+    private final String imageUrl;
+    private final String websiteUrl;
+    private final String requirements;
+    private final boolean hasRoles;
+    private final List<String> availableRoles;
+    private final List<String> availableRanks;
+}
@@ -0,0 +1,25 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+// Dữ liệu rút gọn của game player cho danh sách/tìm kiếm, không kéo theo User/Game đầy đủ
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GamePlayerCardDTO {
+    private Long id;
+    private Long userId;
+    private String username;
+    private Long gameId;
+    private String gameName;
+    private String rank;
+    private String role;
+    private String server;
+    private BigDecimal pricePerHour;
+    private String status;
+    private Double rating;
+    private Integer ratingCount;
+}
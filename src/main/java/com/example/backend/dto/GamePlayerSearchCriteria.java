@@ -0,0 +1,26 @@
+package com.example.backend.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class GamePlayerSearchCriteria {
+    private Long gameId;
+    private String rank;
+    private String role;
+    private String server;
+    private String status;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Double minRating;
+    // Chỉ lấy player rảnh suốt [availableFrom, availableTo); phải truyền cả hai
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime availableFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime availableTo;
+    private String sort;   // rating_desc (mặc định), price_asc, price_desc, newest
+    private String cursor; // nextCursor của trang trước
+    private Integer size;
+}
@@ -0,0 +1,28 @@
+package com.example.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class GatewayCallbackRequest {
+    @NotBlank
+    private String transactionId;
+
+    @NotNull
+    private Long userId;
+
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+
+    @NotBlank
+    private String status; // SUCCESS, FAILED
+
+    private String gatewayReference;
+
+    @NotBlank
+    private String signature; // HMAC-SHA256 hex
+}
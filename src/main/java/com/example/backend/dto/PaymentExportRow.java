@@ -0,0 +1,24 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class PaymentExportRow {
+    private Long id;
+    private LocalDateTime createdAt;
+    private String type;
+    private String status;
+    private String paymentMethod;
+    private BigDecimal amount;
+    private String currency;
+    private Long userId;
+    private String username;
+    private Long playerId;
+    private String transactionId;
+    private String hireStatus;
+    private LocalDateTime completedAt;
+}
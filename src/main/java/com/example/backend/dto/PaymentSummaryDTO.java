@@ -0,0 +1,28 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSummaryDTO {
+    private Long id;
+    private String type;
+    private String status;
+    private String hireStatus;
+    private BigDecimal amount;
+    private String currency;
+    private String paymentMethod;
+    private String description;
+    private LocalDateTime createdAt;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Long userId;
+    private String username;
+    private Long playerId;
+    private String playerName;
+}
@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class PayoutBatchSummary {
+    private String batchId;
+    private LocalDateTime cutoff;
+    private int players;
+    private long requests;
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private String payoutFile;
+}
@@ -0,0 +1,17 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutLine {
+    private Long playerId;
+    private String username;
+    private String fullName;
+    private Long requestCount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,20 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingDeposit {
+    private Long paymentId;
+    private Long userId;
+    private BigDecimal amount;
+    private String currency;
+    private String paymentMethod;
+    private String transactionId;
+    private LocalDateTime createdAt;
+}
@@ -10,6 +10,7 @@ public class PlayerStatsDTO {
     private String playerName;
     private Double averageRating;
     private Integer totalReviews;
+    private List<Integer> ratingHistogram; // Số đánh giá 1..5 sao (index 0 = 1 sao)
     private Integer totalHireHours;
     private Integer completedHires;
     private Integer totalHires;
@@ -0,0 +1,16 @@
+package com.example.backend.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class ReconciliationSummary {
+    private String fileName;
+    private LocalDateTime processedAt;
+    private long totalRows;
+    private long creditedRows;
+    private long exceptionRows;
+    private BigDecimal creditedAmount = BigDecimal.ZERO;
+    private String exceptionReport; // Đường dẫn file báo cáo ngoại lệ
+}
@@ -0,0 +1,17 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueTotalDTO {
+    private String type;
+    private String paymentMethod;
+    private String currency;
+    private Long count;
+    private BigDecimal totalAmount;
+}
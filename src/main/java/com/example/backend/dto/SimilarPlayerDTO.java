@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarPlayerDTO {
+    private Long playerId;
+    private String username;
+    private Integer coHires;     // số người đã thuê cả hai player
+    private Double similarity;   // cosine: coHires / sqrt(số người thuê A * số người thuê B)
+}
@@ -0,0 +1,14 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextSearchResultDTO {
+    private Integer total;
+    private List<GamePlayerCardDTO> items; // theo thứ tự điểm BM25 giảm dần
+}
@@ -1,5 +1,6 @@
 package com.example.backend.entity;
 
+import com.example.backend.event.GameChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.util.Set;
@@ -7,6 +8,7 @@ import java.util.List;
 
 @Data
 @Entity
+@EntityListeners(GameChangeListener.class)
 @Table(name = "games")
 public class Game {
     @Id
@@ -1,5 +1,7 @@
 package com.example.backend.entity;
 
+import com.example.backend.event.GamePlayerChangeListener;
+import com.example.backend.event.GamePlayerValidationListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.Data;
@@ -8,7 +10,13 @@ import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "game_players")
+@EntityListeners({GamePlayerValidationListener.class, GamePlayerChangeListener.class})
+@Table(name = "game_players", indexes = {
+    @Index(name = "idx_game_players_game_status_price", columnList = "game_id, status, price_per_hour"),
+    @Index(name = "idx_game_players_game_status_rating", columnList = "game_id, status, rating"),
+    @Index(name = "idx_game_players_status_price", columnList = "status, price_per_hour"),
+    @Index(name = "idx_game_players_status_rating", columnList = "status, rating")
+})
 public class GamePlayer {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,10 +53,29 @@ public class GamePlayer {
     @Size(max = 500, message = "Description must be less than 500 characters")
     private String description; // Mô tả về người chơi
 
+    // rating và các cột tổng hợp chỉ được ghi bằng UPDATE riêng (applyRatingDelta, setRating cho PUT /{id}/rating);
+    // save() cả entity không được ghi đè giá trị đã load, nếu không sẽ xóa mất delta của giao dịch song song
     @Min(value = 0, message = "Rating must be greater than or equal to 0")
     @Max(value = 5, message = "Rating must be less than or equal to 5")
+    @Column(insertable = false, updatable = false)
     private Double rating;
 
+    // Tổng hợp đánh giá ACTIVE (bảng reviews), cập nhật nguyên tử theo delta khi tạo/sửa/xóa review
+    @Column(insertable = false, updatable = false)
+    private Double ratingSum;
+    @Column(insertable = false, updatable = false)
+    private Integer ratingCount;
+    @Column(insertable = false, updatable = false)
+    private Integer rating1;
+    @Column(insertable = false, updatable = false)
+    private Integer rating2;
+    @Column(insertable = false, updatable = false)
+    private Integer rating3;
+    @Column(insertable = false, updatable = false)
+    private Integer rating4;
+    @Column(insertable = false, updatable = false)
+    private Integer rating5;
+
     @Min(value = 0, message = "Total games must be greater than or equal to 0")
     private Integer totalGames = 0; // Số game đã chơi
 
@@ -79,9 +106,6 @@ public class GamePlayer {
         if (winRate != null && (winRate < 0 || winRate > 100)) {
             throw new IllegalArgumentException("Win rate must be between 0 and 100");
         }
-        // Kiểm tra role nếu game yêu cầu role
-        if (game != null && game.getHasRoles() && (role == null || role.trim().isEmpty())) {
-            throw new IllegalArgumentException("Role is required for this game");
-        }
+        // Role bắt buộc theo game được kiểm tra ở GamePlayerValidationListener (đọc danh mục trong bộ nhớ)
     }
 } 
\ No newline at end of file
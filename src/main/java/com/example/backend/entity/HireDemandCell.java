@@ -0,0 +1,32 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// Một ô của ma trận nhu cầu 7x24 (thứ trong tuần x giờ) theo giờ bắt đầu thuê
+@Data
+@Entity
+@Table(name = "hire_demand_heatmap", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_hire_demand_cell",
+                      columnNames = {"scope_type", "scope_id", "day_of_week", "hour_of_day"})
+})
+public class HireDemandCell {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "scope_type", nullable = false, length = 10)
+    private String scopeType; // GAME, PLAYER
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId; // games.id hoặc users.id của player
+
+    @Column(name = "day_of_week", nullable = false)
+    private Integer dayOfWeek; // 1 = thứ Hai ... 7 = Chủ nhật
+
+    @Column(name = "hour_of_day", nullable = false)
+    private Integer hourOfDay; // 0-23
+
+    @Column(name = "hire_count", nullable = false)
+    private Long hireCount = 0L;
+}
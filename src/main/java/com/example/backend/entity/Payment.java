@@ -1,5 +1,7 @@
 package com.example.backend.entity;
 
+import com.example.backend.event.PaymentRollupListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.math.BigDecimal;
@@ -7,7 +9,15 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "payments")
+@EntityListeners(PaymentRollupListener.class)
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_user_type_created", columnList = "user_id, type, created_at"),
+    @Index(name = "idx_payments_player_type_created", columnList = "player_id, type, created_at"),
+    @Index(name = "idx_payments_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_payments_transaction_id", columnList = "transaction_id"),
+    @Index(name = "uk_payments_deposit_transaction_id", columnList = "deposit_transaction_id", unique = true),
+    @Index(name = "idx_payments_payout_batch_id", columnList = "payout_batch_id")
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -40,6 +50,13 @@ public class Payment {
     @Column
     private String transactionId;
 
+    // Chỉ duy nhất với intent nạp tiền: MySQL không có partial index nên dùng cột sinh, NULL với loại khác.
+    // Dữ liệu cũ có thể trùng transaction_id ở các loại khác nên không đặt unique trên chính cột đó
+    @JsonIgnore
+    @Column(name = "deposit_transaction_id", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN type = 'TOPUP' THEN transaction_id END) STORED")
+    private String depositTransactionId;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -65,6 +82,13 @@ public class Payment {
     @Column
     private String hireStatus; // ACTIVE, COMPLETED, CANCELED, ...
 
+    @Column
+    private String payoutBatchId; // Lô payout đã quyết toán yêu cầu WITHDRAW này
+
+    @Transient
+    @JsonIgnore
+    private String loadedStatus; // status lúc load/ghi gần nhất, dùng để tính delta rollup
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
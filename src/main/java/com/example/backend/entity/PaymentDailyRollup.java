@@ -0,0 +1,36 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Entity
+@Table(name = "payment_daily_rollup", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_payment_daily_rollup_key",
+                      columnNames = {"rollup_day", "type", "payment_method", "currency"})
+})
+public class PaymentDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(name = "payment_method", nullable = false)
+    private String paymentMethod;
+
+    @Column(nullable = false)
+    private String currency;
+
+    @Column(name = "tx_count", nullable = false)
+    private Long txCount = 0L;
+
+    @Column(name = "total_amount", nullable = false, precision = 38, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+}
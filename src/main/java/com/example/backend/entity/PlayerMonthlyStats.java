@@ -0,0 +1,34 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+@Entity
+@Table(name = "player_monthly_stats", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_player_monthly_stats", columnNames = {"player_id", "period"})
+})
+public class PlayerMonthlyStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "player_id", nullable = false)
+    private Long playerId;
+
+    @Column(nullable = false, length = 7)
+    private String period; // yyyy-MM theo created_at của lượt thuê
+
+    @Column(nullable = false)
+    private Integer totalHires = 0;
+
+    @Column(nullable = false)
+    private Integer completedHires = 0;
+
+    @Column(nullable = false)
+    private Long totalHours = 0L;
+
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal earnings = BigDecimal.ZERO;
+}
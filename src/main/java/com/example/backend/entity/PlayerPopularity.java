@@ -0,0 +1,32 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Độ phổ biến của game player, cập nhật tăng dần khi follow/bỏ follow/đánh giá.
+// score = follower_count * 10 + điểm trung bình (0-5): giữ đúng thứ tự follower trước, rating sau.
+@Data
+@Entity
+@Table(name = "player_popularity", indexes = {
+    @Index(name = "idx_player_popularity_score", columnList = "score, game_player_id")
+})
+public class PlayerPopularity {
+    @Id
+    @Column(name = "game_player_id")
+    private Long gamePlayerId;
+
+    @Column(nullable = false)
+    private Long followerCount = 0L;
+
+    @Column(nullable = false)
+    private Double ratingSum = 0.0;
+
+    @Column(nullable = false)
+    private Integer ratingCount = 0;
+
+    @Column(nullable = false)
+    private Double score = 0.0;
+
+    private LocalDateTime updatedAt;
+}
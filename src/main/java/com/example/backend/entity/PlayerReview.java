@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "player_reviews")
+@Table(name = "player_reviews", indexes = {
+    @Index(name = "idx_player_reviews_player_created", columnList = "player_id, created_at")
+})
 public class PlayerReview {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
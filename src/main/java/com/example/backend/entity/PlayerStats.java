@@ -0,0 +1,56 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Thống kê tích lũy của player (users.id), cập nhật tăng dần theo sự kiện thuê/đánh giá
+@Data
+@Entity
+@Table(name = "player_stats")
+public class PlayerStats {
+    @Id
+    @Column(name = "player_id")
+    private Long playerId;
+
+    @Column(nullable = false)
+    private Integer totalHires = 0;
+
+    @Column(nullable = false)
+    private Integer completedHires = 0;
+
+    @Column(nullable = false)
+    private Integer canceledHires = 0;
+
+    @Column(nullable = false)
+    private Long totalHireHours = 0L;
+
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal totalEarnings = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(nullable = false)
+    private Integer reviewCount = 0;
+
+    // Histogram số sao (player_reviews.rating 1-5)
+    @Column(nullable = false)
+    private Integer rating1 = 0;
+
+    @Column(nullable = false)
+    private Integer rating2 = 0;
+
+    @Column(nullable = false)
+    private Integer rating3 = 0;
+
+    @Column(nullable = false)
+    private Integer rating4 = 0;
+
+    @Column(nullable = false)
+    private Integer rating5 = 0;
+
+    @Column
+    private LocalDateTime updatedAt;
+}
@@ -1,5 +1,6 @@
 package com.example.backend.entity;
 
+import com.example.backend.event.UserChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
@@ -8,6 +9,7 @@ import java.util.Set;
 
 @Data
 @Entity
+@EntityListeners(UserChangeListener.class)
 @Table(name = "users")
 public class User {
     @Id
@@ -0,0 +1,30 @@
+package com.example.backend.event;
+
+import com.example.backend.entity.Game;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Phát GameChangedEvent cho mọi lần ghi Game qua JPA; cache danh mục nghe sau commit.
+@Component
+public class GameChangeListener {
+    private final ObjectProvider<ApplicationEventPublisher> eventPublisher;
+
+    public GameChangeListener(ObjectProvider<ApplicationEventPublisher> eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Game game) {
+        eventPublisher.getObject().publishEvent(new GameChangedEvent(game.getId(), false));
+    }
+
+    @PostRemove
+    public void onRemove(Game game) {
+        eventPublisher.getObject().publishEvent(new GameChangedEvent(game.getId(), true));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.backend.event;
+
+import com.example.backend.entity.GamePlayer;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Phát GamePlayerChangedEvent cho mọi lần ghi GamePlayer qua JPA; các chỉ mục trong bộ nhớ nghe sau commit.
+// UPDATE hàng loạt không đi qua listener, nơi gọi phải tự phát event.
+@Component
+public class GamePlayerChangeListener {
+    private final ObjectProvider<ApplicationEventPublisher> eventPublisher;
+
+    public GamePlayerChangeListener(ObjectProvider<ApplicationEventPublisher> eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(GamePlayer gamePlayer) {
+        eventPublisher.getObject().publishEvent(new GamePlayerChangedEvent(gamePlayer.getId(), false));
+    }
+
+    @PostRemove
+    public void onRemove(GamePlayer gamePlayer) {
+        eventPublisher.getObject().publishEvent(new GamePlayerChangedEvent(gamePlayer.getId(), true));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Delta tổng điểm / số đánh giá ACTIVE của một game player (bảng reviews)
+@Getter
+@AllArgsConstructor
+public class GamePlayerRatingChangedEvent {
+    private final Long gamePlayerId;
+    private final double sumDelta;
+    private final int countDelta;
+}
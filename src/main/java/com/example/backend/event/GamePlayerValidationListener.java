@@ -0,0 +1,29 @@
+package com.example.backend.event;
+
+import com.example.backend.entity.GamePlayer;
+import com.example.backend.service.GameCatalogService;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Kiểm tra role bắt buộc theo danh mục game trong bộ nhớ; chỉ dùng game.getId() nên không nạp Game (kể cả proxy)
+@Component
+public class GamePlayerValidationListener {
+    private final ObjectProvider<GameCatalogService> gameCatalogService;
+
+    public GamePlayerValidationListener(ObjectProvider<GameCatalogService> gameCatalogService) {
+        this.gameCatalogService = gameCatalogService;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void validateRole(GamePlayer gamePlayer) {
+        if (gamePlayer.getGame() == null) return;
+        String role = gamePlayer.getRole();
+        if (gameCatalogService.getObject().requiresRole(gamePlayer.getGame().getId())
+                && (role == null || role.trim().isEmpty())) {
+            throw new IllegalArgumentException("Role is required for this game");
+        }
+    }
+}
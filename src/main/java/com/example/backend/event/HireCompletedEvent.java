@@ -0,0 +1,11 @@
+package com.example.backend.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class HireCompletedEvent extends HireEvent {
+    public HireCompletedEvent(Long paymentId, Long playerId, Long hirerId, BigDecimal amount,
+                              LocalDateTime startTime, LocalDateTime endTime, LocalDateTime createdAt) {
+        super(paymentId, playerId, hirerId, amount, startTime, endTime, createdAt);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.backend.event;
+
+import lombok.Getter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+public abstract class HireEvent {
+    private final Long paymentId;
+    private final Long playerId;   // users.id của player được thuê
+    private final Long hirerId;    // users.id của người thuê
+    private final BigDecimal amount;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final LocalDateTime createdAt;
+
+    protected HireEvent(Long paymentId, Long playerId, Long hirerId, BigDecimal amount,
+                        LocalDateTime startTime, LocalDateTime endTime, LocalDateTime createdAt) {
+        this.paymentId = paymentId;
+        this.playerId = playerId;
+        this.hirerId = hirerId;
+        this.amount = amount;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.backend.event;
+
+import com.example.backend.entity.Payment;
+import com.example.backend.service.PaymentRollupService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Giữ payment_daily_rollup đồng bộ với mọi lần ghi Payment qua JPA.
+// UPDATE hàng loạt (JPQL/native) không đi qua listener, nơi gọi phải tự cập nhật rollup.
+@Component
+public class PaymentRollupListener {
+    private static final String COMPLETED = "COMPLETED";
+
+    private final ObjectProvider<PaymentRollupService> rollupService;
+
+    public PaymentRollupListener(ObjectProvider<PaymentRollupService> rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @PostLoad
+    public void onLoad(Payment payment) {
+        payment.setLoadedStatus(payment.getStatus());
+    }
+
+    @PostPersist
+    public void onPersist(Payment payment) {
+        apply(payment, null, payment.getStatus());
+        payment.setLoadedStatus(payment.getStatus());
+    }
+
+    @PostUpdate
+    public void onUpdate(Payment payment) {
+        apply(payment, payment.getLoadedStatus(), payment.getStatus());
+        payment.setLoadedStatus(payment.getStatus());
+    }
+
+    @PostRemove
+    public void onRemove(Payment payment) {
+        apply(payment, payment.getLoadedStatus(), null);
+    }
+
+    private void apply(Payment payment, String before, String after) {
+        int delta = (COMPLETED.equals(after) ? 1 : 0) - (COMPLETED.equals(before) ? 1 : 0);
+        if (delta == 0 || payment.getCreatedAt() == null) {
+            return;
+        }
+        rollupService.getObject().applyDelta(
+                payment.getCreatedAt().toLocalDate(),
+                payment.getType(),
+                payment.getPaymentMethod(),
+                payment.getCurrency(),
+                delta,
+                payment.getAmount().multiply(BigDecimal.valueOf(delta)));
+    }
+}
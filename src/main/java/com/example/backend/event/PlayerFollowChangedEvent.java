@@ -0,0 +1,12 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PlayerFollowChangedEvent {
+    private final Long followerId;
+    private final Long gamePlayerId;
+    private final boolean followed; // false = bỏ theo dõi
+}
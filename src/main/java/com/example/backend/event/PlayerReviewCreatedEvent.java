@@ -0,0 +1,13 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PlayerReviewCreatedEvent {
+    private final Long reviewId;
+    private final Long playerId;   // users.id của player được đánh giá
+    private final Long reviewerId;
+    private final Integer rating;  // 1-5
+}
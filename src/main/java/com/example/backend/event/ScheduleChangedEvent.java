@@ -0,0 +1,11 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ScheduleChangedEvent {
+    private final Long scheduleId;
+    private final Long gamePlayerId;
+}
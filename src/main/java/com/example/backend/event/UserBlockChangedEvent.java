@@ -0,0 +1,12 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserBlockChangedEvent {
+    private final Long blockerId;
+    private final Long blockedId;
+    private final boolean blocked; // false = bỏ chặn
+}
@@ -0,0 +1,30 @@
+package com.example.backend.event;
+
+import com.example.backend.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Phát UserChangedEvent cho mọi lần ghi User qua JPA (đăng ký, đổi tên...); UPDATE hàng loạt không đi qua đây.
+@Component
+public class UserChangeListener {
+    private final ObjectProvider<ApplicationEventPublisher> eventPublisher;
+
+    public UserChangeListener(ObjectProvider<ApplicationEventPublisher> eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(User user) {
+        eventPublisher.getObject().publishEvent(new UserChangedEvent(user.getId(), false));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        eventPublisher.getObject().publishEvent(new UserChangedEvent(user.getId(), true));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    private final Long userId;
+    private final boolean deleted;
+}
@@ -1,9 +1,17 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.GamePlayerCardDTO;
 import com.example.backend.entity.GamePlayer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GamePlayerRepository extends JpaRepository<GamePlayer, Long> {
@@ -14,4 +22,151 @@ public interface GamePlayerRepository extends JpaRepository<GamePlayer, Long> {
     List<GamePlayer> findByRole(String role);
     List<GamePlayer> findByServer(String server);
     List<GamePlayer> findByHiredById(Long userId);
-}
\ No newline at end of file
+
+    @Query("SELECT g.id FROM GamePlayer g WHERE g.status = 'HIRED' AND g.returnDate < ?1 ORDER BY g.returnDate, g.id")
+    List<Long> findExpiredHiredIds(LocalDate today, Pageable pageable);
+
+    @Query("SELECT MIN(g.returnDate) FROM GamePlayer g WHERE g.status = 'HIRED' AND g.returnDate < ?1")
+    LocalDate findOldestExpiredReturnDate(LocalDate today);
+
+    @Modifying
+    @Query("UPDATE GamePlayer g SET g.status = 'AVAILABLE', g.hiredBy = NULL, g.hireDate = NULL, " +
+           "g.returnDate = NULL, g.hoursHired = NULL " +
+           "WHERE g.id IN ?1 AND g.status = 'HIRED' AND g.returnDate < ?2")
+    int releaseHired(List<Long> ids, LocalDate today);
+
+    @Query("SELECT g.id FROM GamePlayer g WHERE g.id IN ?1 AND g.status = 'AVAILABLE'")
+    List<Long> findAvailableIdsIn(List<Long> ids);
+
+    // rating được gán trước từ giá trị cũ + delta, không phụ thuộc thứ tự đánh giá SET của CSDL
+    @Modifying
+    @Query("UPDATE GamePlayer g SET " +
+           "g.rating = CASE WHEN COALESCE(g.ratingCount, 0) + :countDelta > 0 " +
+           "THEN (COALESCE(g.ratingSum, 0) + :sumDelta) / (COALESCE(g.ratingCount, 0) + :countDelta) ELSE NULL END, " +
+           "g.ratingSum = COALESCE(g.ratingSum, 0) + :sumDelta, " +
+           "g.ratingCount = COALESCE(g.ratingCount, 0) + :countDelta, " +
+           "g.rating1 = COALESCE(g.rating1, 0) + CASE WHEN :bucket = 1 THEN :countDelta ELSE 0 END, " +
+           "g.rating2 = COALESCE(g.rating2, 0) + CASE WHEN :bucket = 2 THEN :countDelta ELSE 0 END, " +
+           "g.rating3 = COALESCE(g.rating3, 0) + CASE WHEN :bucket = 3 THEN :countDelta ELSE 0 END, " +
+           "g.rating4 = COALESCE(g.rating4, 0) + CASE WHEN :bucket = 4 THEN :countDelta ELSE 0 END, " +
+           "g.rating5 = COALESCE(g.rating5, 0) + CASE WHEN :bucket = 5 THEN :countDelta ELSE 0 END " +
+           "WHERE g.id = :id")
+    int applyRatingDelta(@Param("id") Long gamePlayerId,
+                         @Param("sumDelta") Double sumDelta,
+                         @Param("countDelta") Integer countDelta,
+                         @Param("bucket") Integer bucket);
+
+    // Sửa điểm một review ACTIVE trong một UPDATE: số lượng giữ nguyên, chuyển một phiếu từ oldBucket sang newBucket
+    @Modifying
+    @Query("UPDATE GamePlayer g SET " +
+           "g.rating = CASE WHEN COALESCE(g.ratingCount, 0) > 0 " +
+           "THEN (COALESCE(g.ratingSum, 0) + :sumDelta) / g.ratingCount ELSE NULL END, " +
+           "g.ratingSum = COALESCE(g.ratingSum, 0) + :sumDelta, " +
+           "g.rating1 = COALESCE(g.rating1, 0) + CASE WHEN :newBucket = 1 THEN 1 ELSE 0 END - CASE WHEN :oldBucket = 1 THEN 1 ELSE 0 END, " +
+           "g.rating2 = COALESCE(g.rating2, 0) + CASE WHEN :newBucket = 2 THEN 1 ELSE 0 END - CASE WHEN :oldBucket = 2 THEN 1 ELSE 0 END, " +
+           "g.rating3 = COALESCE(g.rating3, 0) + CASE WHEN :newBucket = 3 THEN 1 ELSE 0 END - CASE WHEN :oldBucket = 3 THEN 1 ELSE 0 END, " +
+           "g.rating4 = COALESCE(g.rating4, 0) + CASE WHEN :newBucket = 4 THEN 1 ELSE 0 END - CASE WHEN :oldBucket = 4 THEN 1 ELSE 0 END, " +
+           "g.rating5 = COALESCE(g.rating5, 0) + CASE WHEN :newBucket = 5 THEN 1 ELSE 0 END - CASE WHEN :oldBucket = 5 THEN 1 ELSE 0 END " +
+           "WHERE g.id = :id")
+    int applyRatingChange(@Param("id") Long gamePlayerId,
+                          @Param("sumDelta") Double sumDelta,
+                          @Param("oldBucket") Integer oldBucket,
+                          @Param("newBucket") Integer newBucket);
+
+    // Gán rating thủ công; các cột tổng hợp từ review giữ nguyên để applyRatingDelta vẫn đúng
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE GamePlayer g SET g.rating = ?2 WHERE g.id = ?1")
+    int setRating(Long id, Double rating);
+
+    // Dựng lại tổng hợp cho các dòng chưa có dữ liệu (trước khi có cột rating_count)
+    @Modifying
+    @Query(value = "UPDATE game_players gp " +
+           "JOIN (SELECT r.game_player_id, COUNT(*) AS cnt, SUM(r.rating) AS total, " +
+           "SUM(CASE WHEN FLOOR(r.rating + 0.5) <= 1 THEN 1 ELSE 0 END) AS b1, " +
+           "SUM(CASE WHEN FLOOR(r.rating + 0.5) = 2 THEN 1 ELSE 0 END) AS b2, " +
+           "SUM(CASE WHEN FLOOR(r.rating + 0.5) = 3 THEN 1 ELSE 0 END) AS b3, " +
+           "SUM(CASE WHEN FLOOR(r.rating + 0.5) = 4 THEN 1 ELSE 0 END) AS b4, " +
+           "SUM(CASE WHEN FLOOR(r.rating + 0.5) >= 5 THEN 1 ELSE 0 END) AS b5 " +
+           "FROM reviews r WHERE r.status = 'ACTIVE' GROUP BY r.game_player_id) agg " +
+           "ON agg.game_player_id = gp.id " +
+           "SET gp.rating = agg.total / agg.cnt, gp.rating_sum = agg.total, gp.rating_count = agg.cnt, " +
+           "gp.rating1 = agg.b1, gp.rating2 = agg.b2, gp.rating3 = agg.b3, gp.rating4 = agg.b4, gp.rating5 = agg.b5 " +
+           "WHERE gp.rating_count IS NULL", nativeQuery = true)
+    int backfillRatingAggregates();
+
+    // Dòng chưa có tổng hợp và không có review ACTIVE nào: bỏ rating nhập tay cũ, đưa về trạng thái chưa đánh giá
+    @Modifying
+    @Query(value = "UPDATE game_players gp SET gp.rating = NULL, gp.rating_sum = 0, gp.rating_count = 0, " +
+           "gp.rating1 = 0, gp.rating2 = 0, gp.rating3 = 0, gp.rating4 = 0, gp.rating5 = 0 " +
+           "WHERE gp.rating_count IS NULL AND NOT EXISTS " +
+           "(SELECT 1 FROM reviews r WHERE r.game_player_id = gp.id AND r.status = 'ACTIVE')", nativeQuery = true)
+    int resetRatingAggregatesWithoutReviews();
+
+    // id, user_id, game_id của mọi game player
+    @Query("SELECT g.id, g.user.id, g.game.id FROM GamePlayer g")
+    List<Object[]> findAllOwnership();
+
+    @Query("SELECT DISTINCT g.game.id FROM GamePlayer g WHERE g.user.id = ?1")
+    List<Long> findGameIdsByUserId(Long userId);
+
+    String CARD_SELECT =
+            "SELECT new com.example.backend.dto.GamePlayerCardDTO(g.id, u.id, g.username, gm.id, gm.name, " +
+            "g.rank, g.role, g.server, g.pricePerHour, g.status, g.rating, g.ratingCount) " +
+            "FROM GamePlayer g JOIN g.user u JOIN g.game gm";
+
+    @Query(CARD_SELECT)
+    List<GamePlayerCardDTO> findAllCards();
+
+    @Query(CARD_SELECT + " WHERE g.id = ?1")
+    Optional<GamePlayerCardDTO> findCardById(Long id);
+
+    @Query(CARD_SELECT + " WHERE g.id IN ?1")
+    List<GamePlayerCardDTO> findCardsByIds(Collection<Long> ids);
+
+    // Trang card theo id giảm dần (keyset); tham số lọc null = bỏ qua điều kiện đó
+    @Query(CARD_SELECT + " WHERE (:gameId IS NULL OR gm.id = :gameId) " +
+           "AND (:userId IS NULL OR u.id = :userId) " +
+           "AND (:status IS NULL OR g.status = :status) " +
+           "AND (:rank IS NULL OR g.rank = :rank) " +
+           "AND (:role IS NULL OR g.role = :role) " +
+           "AND (:server IS NULL OR g.server = :server) " +
+           "AND (:afterId IS NULL OR g.id < :afterId) " +
+           "ORDER BY g.id DESC")
+    List<GamePlayerCardDTO> findCardPage(@Param("gameId") Long gameId,
+                                         @Param("userId") Long userId,
+                                         @Param("status") String status,
+                                         @Param("rank") String rank,
+                                         @Param("role") String role,
+                                         @Param("server") String server,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    @Query("SELECT g.id, g.username, g.description FROM GamePlayer g")
+    List<Object[]> findAllSearchText();
+
+    @Query("SELECT g.id, g.username, g.description FROM GamePlayer g WHERE g.id IN ?1")
+    List<Object[]> findSearchTextByIds(Collection<Long> ids);
+
+    // CRC32 của "username\ndescription" (UTF-8), để biết bản snapshot chỉ mục nào còn đúng
+    @Query(value = "SELECT id, CRC32(CONCAT(username, '\\n', COALESCE(description, ''))) FROM game_players",
+           nativeQuery = true)
+    List<Object[]> findSearchTextFingerprints();
+
+    @Query("SELECT g.id, g.username, COALESCE(g.ratingCount, 0) FROM GamePlayer g")
+    List<Object[]> findAllUsernames();
+
+    @Query("SELECT g.username FROM GamePlayer g WHERE g.id = ?1")
+    Optional<String> findUsernameById(Long id);
+
+    @Query("SELECT g.id, g.user.id, g.username, g.status, g.rating FROM GamePlayer g")
+    List<Object[]> findAllSuggestionNodes();
+
+    @Query("SELECT g.id FROM GamePlayer g WHERE g.user.id = ?1")
+    List<Long> findIdsByUserId(Long userId);
+
+    @Query("SELECT g.id, g.user.id, g.game.id FROM GamePlayer g WHERE g.id = ?1")
+    List<Object[]> findOwnershipById(Long id);
+
+    @Query("SELECT g.id, g.user.id, g.game.id FROM GamePlayer g WHERE g.user.id = ?1")
+    List<Object[]> findOwnershipByUserId(Long userId);
+}
@@ -2,6 +2,7 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.Game;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -13,4 +14,10 @@ public interface GameRepository extends JpaRepository<Game, Long> {
     List<Game> findByPlatform(String platform);
     List<Game> findByStatus(String status);
     List<Game> findByCategoryAndPlatform(String category, String platform);
+
+    @Query("SELECT g.id, r FROM Game g JOIN g.availableRoles r")
+    List<Object[]> findAllRoles();
+
+    @Query("SELECT g.id, r FROM Game g JOIN g.availableRanks r")
+    List<Object[]> findAllRanks();
 } 
\ No newline at end of file
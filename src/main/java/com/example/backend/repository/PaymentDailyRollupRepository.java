@@ -0,0 +1,20 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.RevenueTotalDTO;
+import com.example.backend.entity.PaymentDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PaymentDailyRollupRepository extends JpaRepository<PaymentDailyRollup, Long> {
+    @Query("SELECT new com.example.backend.dto.RevenueTotalDTO(" +
+           "r.type, r.paymentMethod, r.currency, SUM(r.txCount), SUM(r.totalAmount)) " +
+           "FROM PaymentDailyRollup r " +
+           "WHERE r.day BETWEEN ?1 AND ?2 AND (?3 IS NULL OR r.type = ?3) " +
+           "GROUP BY r.type, r.paymentMethod, r.currency " +
+           "ORDER BY r.type, r.paymentMethod, r.currency")
+    List<RevenueTotalDTO> sumByPeriod(LocalDate from, LocalDate to, String type);
+}
@@ -1,13 +1,36 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.ExpiredHire;
+import com.example.backend.dto.PaymentExportRow;
+import com.example.backend.dto.PaymentSummaryDTO;
+import com.example.backend.dto.PayoutLine;
+import com.example.backend.dto.PendingDeposit;
 import com.example.backend.entity.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    String SUMMARY_SELECT = "SELECT new com.example.backend.dto.PaymentSummaryDTO(" +
+            "p.id, p.type, p.status, p.hireStatus, p.amount, p.currency, p.paymentMethod, p.description, " +
+            "p.createdAt, p.startTime, p.endTime, u.id, u.username, pl.id, pl.username) " +
+            "FROM Payment p JOIN p.user u LEFT JOIN p.player pl ";
+    // Keyset (created_at, id) giảm dần; cursor null = trang đầu
+    String KEYSET_AFTER = "AND (:cursorCreatedAt IS NULL OR p.createdAt < :cursorCreatedAt " +
+            "OR (p.createdAt = :cursorCreatedAt AND p.id < :cursorId)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC";
+
     List<Payment> findByUserId(Long userId);
     List<Payment> findByGamePlayerId(Long gamePlayerId);
     List<Payment> findByStatus(String status);
@@ -16,4 +39,140 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByUserIdAndTypeOrderByCreatedAtDesc(Long userId, String type);
     List<Payment> findByPlayerIdAndTypeOrderByCreatedAtDesc(Long playerId, String type);
     List<Payment> findByPlayerIdAndHireStatusAndEndTimeAfter(Long playerId, String hireStatus, LocalDateTime time);
-} 
\ No newline at end of file
+
+    @Query(SUMMARY_SELECT + "WHERE p.user.id = :userId AND p.type = :type " + KEYSET_AFTER)
+    List<PaymentSummaryDTO> findSummariesByUserAndType(@Param("userId") Long userId,
+                                                       @Param("type") String type,
+                                                       @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                       @Param("cursorId") Long cursorId,
+                                                       Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.player.id = :playerId AND p.type = :type " + KEYSET_AFTER)
+    List<PaymentSummaryDTO> findSummariesByPlayerAndType(@Param("playerId") Long playerId,
+                                                         @Param("type") String type,
+                                                         @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                         @Param("cursorId") Long cursorId,
+                                                         Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.user.id = :userId " + KEYSET_AFTER)
+    List<PaymentSummaryDTO> findSummariesByUser(@Param("userId") Long userId,
+                                                @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                @Param("cursorId") Long cursorId,
+                                                Pageable pageable);
+
+    // Hợp đồng thuê ACTIVE đã hết hạn, cũ nhất trước
+    @Query("SELECT new com.example.backend.dto.ExpiredHire(" +
+           "p.id, pl.id, u.id, p.amount, p.startTime, p.endTime, p.createdAt) " +
+           "FROM Payment p JOIN p.user u LEFT JOIN p.player pl " +
+           "WHERE p.type = 'HIRE' AND p.hireStatus = 'ACTIVE' AND p.endTime <= ?1 " +
+           "ORDER BY p.endTime, p.id")
+    List<ExpiredHire> findExpiredHires(LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT MIN(p.endTime) FROM Payment p " +
+           "WHERE p.type = 'HIRE' AND p.hireStatus = 'ACTIVE' AND p.endTime <= ?1")
+    LocalDateTime findOldestExpiredHireEndTime(LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.hireStatus = 'COMPLETED', p.completedAt = ?2 " +
+           "WHERE p.id IN ?1 AND p.hireStatus = 'ACTIVE' AND p.endTime <= ?2")
+    int completeHires(List<Long> ids, LocalDateTime completedAt);
+
+    @Query("SELECT p.id FROM Payment p WHERE p.id IN ?1 AND p.hireStatus = 'COMPLETED' AND p.completedAt = ?2")
+    List<Long> findHireIdsCompletedAt(List<Long> ids, LocalDateTime completedAt);
+
+    // Fetch size MIN_VALUE bật chế độ streaming từng dòng của MySQL Connector/J, bộ nhớ không phụ thuộc số dòng
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.backend.dto.PaymentExportRow(" +
+           "p.id, p.createdAt, p.type, p.status, p.paymentMethod, p.amount, p.currency, " +
+           "u.id, u.username, pl.id, p.transactionId, p.hireStatus, p.completedAt) " +
+           "FROM Payment p JOIN p.user u LEFT JOIN p.player pl " +
+           "WHERE p.createdAt >= ?1 AND p.createdAt < ?2 " +
+           "ORDER BY p.createdAt, p.id")
+    Stream<PaymentExportRow> streamForExport(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT new com.example.backend.dto.PendingDeposit(" +
+           "p.id, p.user.id, p.amount, p.currency, p.paymentMethod, p.transactionId, p.createdAt) " +
+           "FROM Payment p " +
+           "WHERE p.type = 'TOPUP' AND p.status = 'PENDING' AND p.transactionId IN ?1")
+    List<PendingDeposit> findPendingDeposits(Collection<String> transactionIds);
+
+    @Query("SELECT new com.example.backend.dto.PendingDeposit(" +
+           "p.id, p.user.id, p.amount, p.currency, p.paymentMethod, p.transactionId, p.createdAt) " +
+           "FROM Payment p " +
+           "WHERE p.type = 'TOPUP' AND p.status = 'PENDING' AND p.transactionId IN ?1 AND p.paymentMethod = ?2")
+    List<PendingDeposit> findPendingDepositsByMethod(Collection<String> transactionIds, String paymentMethod);
+
+    // Chỉ chuyển trạng thái khi còn PENDING, trả về 0 nếu đã được xử lý trước đó
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = 'COMPLETED', p.completedAt = ?2 WHERE p.id = ?1 AND p.status = 'PENDING'")
+    int completePending(Long paymentId, LocalDateTime completedAt);
+
+    // Gộp các yêu cầu rút tiền PENDING theo player cho một cửa sổ payout
+    @Query("SELECT new com.example.backend.dto.PayoutLine(u.id, u.username, u.fullName, COUNT(p), SUM(p.amount)) " +
+           "FROM Payment p JOIN p.user u " +
+           "WHERE p.type = 'WITHDRAW' AND p.status = 'PENDING' AND p.createdAt < ?1 " +
+           "GROUP BY u.id, u.username, u.fullName " +
+           "ORDER BY u.id")
+    List<PayoutLine> findPendingPayoutLines(LocalDateTime cutoff);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = 'COMPLETED', p.completedAt = ?2, p.payoutBatchId = ?3 " +
+           "WHERE p.type = 'WITHDRAW' AND p.status = 'PENDING' AND p.createdAt < ?1")
+    int settlePendingWithdrawals(LocalDateTime cutoff, LocalDateTime completedAt, String batchId);
+
+    // Tổng hợp lượt thuê của player ngay trong DB: total, completed, canceled, giờ thuê (trừ lượt đã hủy), thu nhập (COMPLETED)
+    @Query(value = "SELECT COUNT(*), " +
+           "COALESCE(SUM(CASE WHEN p.hire_status = 'COMPLETED' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.hire_status = 'CANCELED' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.hire_status IS NULL OR p.hire_status <> 'CANCELED' " +
+           "THEN TIMESTAMPDIFF(HOUR, p.start_time, p.end_time) ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.hire_status = 'COMPLETED' THEN p.amount ELSE 0 END), 0) " +
+           "FROM payments p WHERE p.player_id = ?1 AND p.type = 'HIRE'", nativeQuery = true)
+    List<Object[]> aggregateHireTotals(Long playerId);
+
+    // Theo tháng tạo: period, total, completed, giờ thuê và thu nhập của các lượt COMPLETED
+    @Query(value = "SELECT DATE_FORMAT(p.created_at, '%Y-%m') AS period, COUNT(*), " +
+           "COALESCE(SUM(CASE WHEN p.hire_status = 'COMPLETED' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.hire_status = 'COMPLETED' " +
+           "THEN TIMESTAMPDIFF(HOUR, p.start_time, p.end_time) ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.hire_status = 'COMPLETED' THEN p.amount ELSE 0 END), 0) " +
+           "FROM payments p WHERE p.player_id = ?1 AND p.type = 'HIRE' " +
+           "GROUP BY period ORDER BY period", nativeQuery = true)
+    List<Object[]> aggregateHireStatsByPeriod(Long playerId);
+
+    // player_id, thu nhập (COMPLETED), giờ thuê (trừ lượt đã hủy) — dùng dựng leaderboard
+    @Query(value = "SELECT p.player_id, " +
+           "COALESCE(SUM(CASE WHEN p.hire_status = 'COMPLETED' THEN p.amount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.hire_status IS NULL OR p.hire_status <> 'CANCELED' " +
+           "THEN TIMESTAMPDIFF(HOUR, p.start_time, p.end_time) ELSE 0 END), 0) " +
+           "FROM payments p WHERE p.type = 'HIRE' AND p.player_id IS NOT NULL " +
+           "GROUP BY p.player_id", nativeQuery = true)
+    List<Object[]> aggregateHireTotalsByPlayer();
+
+    // Thu nhập, giờ thuê của một player, cùng công thức với aggregateHireTotalsByPlayer
+    @Query(value = "SELECT " +
+           "COALESCE(SUM(CASE WHEN p.hire_status = 'COMPLETED' THEN p.amount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.hire_status IS NULL OR p.hire_status <> 'CANCELED' " +
+           "THEN TIMESTAMPDIFF(HOUR, p.start_time, p.end_time) ELSE 0 END), 0) " +
+           "FROM payments p WHERE p.type = 'HIRE' AND p.player_id = ?1", nativeQuery = true)
+    List<Object[]> aggregateHireTotalsForPlayer(Long playerId);
+
+    // Cặp (người thuê, player) duy nhất của các lượt thuê không bị hủy, theo người thuê
+    @Query(value = "SELECT DISTINCT p.user_id, p.player_id FROM payments p " +
+           "WHERE p.type = 'HIRE' AND p.player_id IS NOT NULL AND p.user_id <> p.player_id " +
+           "AND (p.hire_status IS NULL OR p.hire_status <> 'CANCELED') " +
+           "ORDER BY p.user_id", nativeQuery = true)
+    List<Object[]> findHirerPlayerPairs();
+
+    // player_id (users.id), start, end của các lượt thuê ACTIVE giao với [from, to)
+    @Query("SELECT p.player.id, p.startTime, p.endTime FROM Payment p " +
+           "WHERE p.type = 'HIRE' AND p.hireStatus = 'ACTIVE' AND p.endTime > ?1 AND p.startTime < ?2")
+    List<Object[]> findActiveHireIntervals(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT p.player.id, p.startTime, p.endTime FROM Payment p " +
+           "WHERE p.player.id = ?1 AND p.type = 'HIRE' AND p.hireStatus = 'ACTIVE' AND p.endTime > ?2 AND p.startTime < ?3")
+    List<Object[]> findActiveHireIntervalsByPlayerId(Long playerId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,11 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.PlayerMonthlyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface PlayerMonthlyStatsRepository extends JpaRepository<PlayerMonthlyStats, Long> {
+    List<PlayerMonthlyStats> findByPlayerIdOrderByPeriodAsc(Long playerId);
+}
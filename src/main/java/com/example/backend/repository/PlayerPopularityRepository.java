@@ -0,0 +1,26 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.PlayerPopularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface PlayerPopularityRepository extends JpaRepository<PlayerPopularity, Long> {
+    // Quét idx_player_popularity_score theo chiều giảm, lọc status qua khóa chính game_players
+    @Query(value = "SELECT pp.game_player_id, gp.username, pp.follower_count, " +
+           "IF(pp.rating_count > 0, pp.rating_sum / pp.rating_count, 0), pp.score " +
+           "FROM player_popularity pp JOIN game_players gp ON gp.id = pp.game_player_id " +
+           "WHERE gp.status = 'AVAILABLE' " +
+           "ORDER BY pp.score DESC, pp.game_player_id DESC LIMIT ?1", nativeQuery = true)
+    List<Object[]> findTopAvailable(int limit);
+
+    @Query(value = "SELECT pp.game_player_id, gp.username, pp.follower_count, " +
+           "IF(pp.rating_count > 0, pp.rating_sum / pp.rating_count, 0), pp.score " +
+           "FROM player_popularity pp JOIN game_players gp ON gp.id = pp.game_player_id " +
+           "WHERE gp.status = 'AVAILABLE' " +
+           "AND (pp.score < ?1 OR (pp.score = ?1 AND pp.game_player_id < ?2)) " +
+           "ORDER BY pp.score DESC, pp.game_player_id DESC LIMIT ?3", nativeQuery = true)
+    List<Object[]> findAvailableAfter(double score, long gamePlayerId, int limit);
+}
@@ -1,6 +1,7 @@
 package com.example.backend.repository;
 
 import com.example.backend.entity.PlayerReview;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import java.util.List;
@@ -10,8 +11,21 @@ public interface PlayerReviewRepository extends JpaRepository<PlayerReview, Long
     
     List<PlayerReview> findByPaymentId(Long paymentId);
     
-    @Query("SELECT AVG(r.rating) FROM PlayerReview r WHERE r.player.id = ?1")
-    Double getAverageRatingByPlayerId(Long playerId);
-    
     boolean existsByPaymentId(Long paymentId);
-} 
\ No newline at end of file
+
+    // count, sum, rồi số lượng 1..5 sao
+    @Query("SELECT COUNT(r), COALESCE(SUM(r.rating), 0), " +
+           "SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END) " +
+           "FROM PlayerReview r WHERE r.player.id = ?1")
+    List<Object[]> aggregateRatingByPlayerId(Long playerId);
+
+    // id, rating, comment, reviewer username, createdAt — chỉ lấy đúng số dòng cần
+    @Query("SELECT r.id, r.rating, r.comment, rv.username, r.createdAt FROM PlayerReview r JOIN r.reviewer rv " +
+           "WHERE r.player.id = ?1 ORDER BY r.createdAt DESC, r.id DESC")
+    List<Object[]> findRecentByPlayerId(Long playerId, Pageable pageable);
+
+    @Query("SELECT r.player.id, COUNT(r), SUM(r.rating) FROM PlayerReview r GROUP BY r.player.id")
+    List<Object[]> aggregateRatingsByPlayer();
+}
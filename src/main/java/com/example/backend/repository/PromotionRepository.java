@@ -2,6 +2,7 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.Promotion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,4 +14,7 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
     List<Promotion> findByDiscountType(String discountType);
     List<Promotion> findByStartDateBeforeAndEndDateAfter(LocalDateTime start, LocalDateTime end);
     List<Promotion> findByApplicableGamesName(String gameName);
+
+    @Query("SELECT COUNT(g) > 0 FROM Promotion p JOIN p.applicableGames g WHERE p.id = ?1 AND g.id = ?2")
+    boolean isApplicableToGame(Long promotionId, Long gameId);
 } 
\ No newline at end of file
@@ -11,6 +11,5 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByUserId(Long userId);
     List<Review> findByStatus(String status);
     List<Review> findByGamePlayerIdAndStatus(Long gamePlayerId, String status);
-    Double findAverageRatingByGamePlayerId(Long gamePlayerId);
     List<Review> findByGamePlayerIdAndUserId(Long gamePlayerId, Long userId);
 } 
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.Schedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,4 +14,13 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     List<Schedule> findByGamePlayerIdAndStartTimeBetween(Long gamePlayerId, LocalDateTime start, LocalDateTime end);
     List<Schedule> findByUserIdAndStartTimeBetween(Long userId, LocalDateTime start, LocalDateTime end);
     List<Schedule> findByStatus(String status);
-} 
\ No newline at end of file
+
+    // game_player_id, start, end của các lịch còn hiệu lực giao với [from, to)
+    @Query("SELECT s.gamePlayer.id, s.startTime, s.endTime FROM Schedule s " +
+           "WHERE s.status IN ('PENDING', 'CONFIRMED') AND s.endTime > ?1 AND s.startTime < ?2")
+    List<Object[]> findBusyIntervals(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT s.gamePlayer.id, s.startTime, s.endTime FROM Schedule s " +
+           "WHERE s.gamePlayer.id = ?1 AND s.status IN ('PENDING', 'CONFIRMED') AND s.endTime > ?2 AND s.startTime < ?3")
+    List<Object[]> findBusyIntervalsByGamePlayerId(Long gamePlayerId, LocalDateTime from, LocalDateTime to);
+}
@@ -17,4 +17,9 @@ public interface UserBlockRepository extends JpaRepository<UserBlock, Long> {
     @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM UserBlock b " +
            "WHERE (b.blocker.id = ?1 AND b.blocked.id = ?2) OR (b.blocker.id = ?2 AND b.blocked.id = ?1)")
     boolean isBlocked(Long userId1, Long userId2);
-} 
\ No newline at end of file
+
+    // Người dùng bị userId chặn hoặc đã chặn userId
+    @Query("SELECT CASE WHEN b.blocker.id = ?1 THEN b.blocked.id ELSE b.blocker.id END FROM UserBlock b " +
+           "WHERE b.blocker.id = ?1 OR b.blocked.id = ?1")
+    List<Long> findBlockRelatedUserIds(Long userId);
+}
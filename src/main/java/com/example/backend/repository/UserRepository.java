@@ -2,6 +2,11 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -9,4 +14,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-} 
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE User u SET u.walletBalance = u.walletBalance + ?2 WHERE u.id = ?1")
+    int creditWallet(Long userId, BigDecimal amount);
+
+    @Query("SELECT u.username FROM User u WHERE u.id = ?1")
+    Optional<String> findUsernameById(Long userId);
+
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id IN ?1")
+    List<Object[]> findUsernamesByIds(Collection<Long> userIds);
+
+    @Query("SELECT u.id, u.username FROM User u")
+    List<Object[]> findAllUsernames();
+}
@@ -0,0 +1,276 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.PendingDeposit;
+import com.example.backend.dto.ReconciliationSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Đối soát sao kê chuyển khoản: đọc từng dòng CSV (date,amount,content,reference), tách nội dung
+// NAPTIEN_<userId>_<transactionId>, khớp với intent PENDING theo lô và cộng tiền.
+// Bộ nhớ chỉ phụ thuộc kích thước lô, không phụ thuộc số dòng của file.
+@Service
+public class BankReconciliationService {
+    // Ngân hàng thường đổi '_' thành khoảng trắng hoặc bỏ hẳn, nên chấp nhận các dấu phân cách này.
+    // Mã giao dịch là UUID 32 ký tự hex; dạng số cũ (TXN_<millis>) vẫn nhận cho các intent tạo trước đó.
+    private static final Pattern TRANSFER_CONTENT = Pattern.compile(
+            "NAPTIEN[_\\s-]*(\\d+)[_\\s-]*TXN[_\\s-]*([0-9A-F]{32}|\\d+)", Pattern.CASE_INSENSITIVE);
+
+    private final DepositService depositService;
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    @Value("${reconciliation.inbox-dir:./bank-statements/inbox}")
+    private String inboxDir;
+
+    @Value("${reconciliation.processed-dir:./bank-statements/processed}")
+    private String processedDir;
+
+    @Value("${reconciliation.batch-size:1000}")
+    private int batchSize;
+
+    public BankReconciliationService(DepositService depositService) {
+        this.depositService = depositService;
+    }
+
+    @Scheduled(fixedDelayString = "${reconciliation.interval-ms:300000}",
+               initialDelayString = "${reconciliation.initial-delay-ms:60000}")
+    public void scheduledRun() {
+        // Bỏ qua lượt chạy nếu đang có lượt khác (ví dụ admin chạy tay)
+        if (!runLock.tryLock()) {
+            return;
+        }
+        try {
+            processInbox();
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    public List<ReconciliationSummary> runInbox() {
+        if (!runLock.tryLock()) {
+            throw new IllegalStateException("Reconciliation is already running");
+        }
+        try {
+            return processInbox();
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private List<ReconciliationSummary> processInbox() {
+        try {
+            Path inbox = Paths.get(inboxDir);
+            if (!Files.isDirectory(inbox)) {
+                return List.of();
+            }
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(inbox, "*.csv")) {
+                stream.forEach(files::add);
+            }
+            files.sort(null);
+
+            List<ReconciliationSummary> summaries = new ArrayList<>();
+            for (Path file : files) {
+                summaries.add(processFile(file));
+            }
+            return summaries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ReconciliationSummary processFile(Path file) throws IOException {
+        Path processed = Paths.get(processedDir);
+        Files.createDirectories(processed);
+        String fileName = file.getFileName().toString();
+        Path reportPath = processed.resolve(fileName.replaceFirst("\\.csv$", "") + ".exceptions.csv");
+
+        ReconciliationSummary summary = new ReconciliationSummary();
+        summary.setFileName(fileName);
+        summary.setExceptionReport(reportPath.toString());
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             BufferedWriter report = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+            report.write("line,reason,amount,content,reference");
+            report.newLine();
+
+            List<StatementRow> batch = new ArrayList<>(batchSize);
+            String line = reader.readLine(); // Bỏ qua dòng tiêu đề
+            long lineNo = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                summary.setTotalRows(summary.getTotalRows() + 1);
+                StatementRow row = parseRow(lineNo, line);
+                if (row.reason != null) {
+                    writeException(report, row, row.reason, summary);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    reconcileBatch(batch, report, summary);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                reconcileBatch(batch, report, summary);
+            }
+        }
+
+        Files.move(file, processed.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+        summary.setProcessedAt(LocalDateTime.now());
+        return summary;
+    }
+
+    private void reconcileBatch(List<StatementRow> batch, BufferedWriter report,
+                                ReconciliationSummary summary) throws IOException {
+        Set<String> transactionIds = new HashSet<>();
+        for (StatementRow row : batch) {
+            transactionIds.add(row.transactionId);
+        }
+
+        // Chỉ mục băm theo userId + transactionId cho các intent chuyển khoản còn PENDING của lô hiện tại;
+        // intent MOMO/VNPAY/ZALOPAY chỉ được cộng qua callback của cổng tương ứng
+        Map<String, PendingDeposit> pendingIndex = new HashMap<>();
+        for (PendingDeposit deposit : depositService.findPendingDeposits(transactionIds, "BANK_TRANSFER")) {
+            pendingIndex.put(deposit.getUserId() + ":" + deposit.getTransactionId(), deposit);
+        }
+
+        List<PendingDeposit> matched = new ArrayList<>();
+        Map<Long, StatementRow> rowsByPayment = new HashMap<>();
+        Set<String> matchedKeys = new HashSet<>();
+        for (StatementRow row : batch) {
+            String key = row.userId + ":" + row.transactionId;
+            PendingDeposit deposit = pendingIndex.remove(key);
+            if (deposit == null) {
+                writeException(report, row, matchedKeys.contains(key) ? "DUPLICATE_TRANSFER" : "NO_PENDING_INTENT", summary);
+            } else if (deposit.getAmount().compareTo(row.amount) != 0) {
+                writeException(report, row, "AMOUNT_MISMATCH expected=" + deposit.getAmount().toPlainString(), summary);
+            } else {
+                matched.add(deposit);
+                matchedKeys.add(key);
+                rowsByPayment.put(deposit.getPaymentId(), row);
+            }
+        }
+        if (matched.isEmpty()) {
+            return;
+        }
+
+        Set<Long> credited = new HashSet<>();
+        for (PendingDeposit deposit : depositService.creditDeposits(matched)) {
+            credited.add(deposit.getPaymentId());
+            summary.setCreditedRows(summary.getCreditedRows() + 1);
+            summary.setCreditedAmount(summary.getCreditedAmount().add(deposit.getAmount()));
+        }
+        for (PendingDeposit deposit : matched) {
+            if (!credited.contains(deposit.getPaymentId())) {
+                writeException(report, rowsByPayment.get(deposit.getPaymentId()), "ALREADY_CREDITED", summary);
+            }
+        }
+    }
+
+    static StatementRow parseRow(long lineNo, String line) {
+        StatementRow row = new StatementRow();
+        row.lineNo = lineNo;
+        List<String> columns = splitCsvLine(line);
+        if (columns.size() < 3) {
+            row.content = line;
+            row.reason = "UNPARSEABLE_ROW";
+            return row;
+        }
+        row.content = columns.get(2);
+        row.reference = columns.size() > 3 ? columns.get(3) : "";
+        try {
+            row.amount = new BigDecimal(columns.get(1).trim().replace(",", ""));
+        } catch (NumberFormatException e) {
+            row.reason = "INVALID_AMOUNT";
+            return row;
+        }
+        Matcher matcher = TRANSFER_CONTENT.matcher(row.content);
+        if (!matcher.find()) {
+            row.reason = "UNRECOGNIZED_CONTENT";
+            return row;
+        }
+        row.userId = Long.parseLong(matcher.group(1));
+        row.transactionId = "TXN_" + matcher.group(2).toUpperCase();
+        return row;
+    }
+
+    // Tách một dòng CSV, hỗ trợ trường trong dấu nháy kép
+    private static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    private void writeException(BufferedWriter report, StatementRow row, String reason,
+                                ReconciliationSummary summary) throws IOException {
+        summary.setExceptionRows(summary.getExceptionRows() + 1);
+        report.write(row.lineNo + "," + csv(reason) + "," + (row.amount != null ? row.amount.toPlainString() : "")
+                + "," + csv(row.content) + "," + csv(row.reference));
+        report.newLine();
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    static class StatementRow {
+        long lineNo;
+        BigDecimal amount;
+        String content;
+        String reference;
+        long userId;
+        String transactionId;
+        String reason; // khác null nếu dòng không hợp lệ
+    }
+}
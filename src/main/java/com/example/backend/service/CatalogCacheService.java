@@ -0,0 +1,139 @@
+package com.example.backend.service;
+
+import com.example.backend.event.GamePlayerChangedEvent;
+import com.example.backend.event.GamePlayerRatingChangedEvent;
+import com.example.backend.event.GamePlayerReleasedEvent;
+import com.example.backend.event.PlayerFollowChangedEvent;
+import com.example.backend.util.SingleFlightCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Cache HTTP cho các danh mục công khai đọc nhiều, ghi ít.
+// Mỗi danh mục có bộ đếm phiên bản tăng sau commit của mọi lần ghi liên quan; ETag yếu = W/"<danh mục>-<phiên bản>".
+// Danh mục game do GameCatalogService tăng sau khi thay ảnh chụp.
+// JSON đã render được cache theo (phiên bản, URI + query) nên lần gọi lặp lại không chạm DB lẫn Jackson;
+// tăng phiên bản là đủ để bỏ các bản cũ, chúng tự hết hạn theo TTL.
+@Service
+public class CatalogCacheService {
+    public static final String GAMES = "games";
+    public static final String AVAILABLE_PLAYERS = "available-players";
+    public static final String POPULAR_PLAYERS = "popular-players";
+
+    private final ObjectMapper objectMapper;
+    private final SingleFlightCache<String, byte[]> renderedCache;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    // Phiên bản bắt đầu từ thời điểm khởi động để ETag cũ của client không trùng sau khi restart
+    private final long initialVersion = System.currentTimeMillis();
+
+    @Value("${catalog-cache.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    public CatalogCacheService(ObjectMapper objectMapper,
+                               @Value("${catalog-cache.ttl-ms:600000}") long ttlMs,
+                               @Value("${catalog-cache.max-entries:1000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.renderedCache = new SingleFlightCache<>(ttlMs, maxEntries);
+    }
+
+    public long version(String catalog) {
+        return counter(catalog).get();
+    }
+
+    public void bump(String... catalogs) {
+        for (String catalog : catalogs) {
+            counter(catalog).incrementAndGet();
+        }
+    }
+
+    // shared = true cho phép cache dùng chung (CDN/proxy) lưu; endpoint cần đăng nhập dùng private
+    public ResponseEntity<byte[]> respond(String catalog, boolean shared, HttpServletRequest request,
+                                          Supplier<?> loader) {
+        // Đọc phiên bản trước khi tải: nếu có ghi xen giữa, bản render chỉ nằm dưới phiên bản cũ
+        long version = version(catalog);
+        String etag = "W/\"" + catalog + "-" + version + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).mustRevalidate();
+        cacheControl = shared ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        String query = request.getQueryString();
+        String key = catalog + ":" + version + ":" + request.getRequestURI() + (query == null ? "" : "?" + query);
+        byte[] body = renderedCache.get(key, () -> render(loader.get()));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGamePlayerChanged(GamePlayerChangedEvent event) {
+        bump(AVAILABLE_PLAYERS, POPULAR_PLAYERS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGamePlayerReleased(GamePlayerReleasedEvent event) {
+        bump(AVAILABLE_PLAYERS, POPULAR_PLAYERS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRatingChanged(GamePlayerRatingChangedEvent event) {
+        bump(AVAILABLE_PLAYERS, POPULAR_PLAYERS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFollowChanged(PlayerFollowChangedEvent event) {
+        bump(POPULAR_PLAYERS);
+    }
+
+    private AtomicLong counter(String catalog) {
+        return versions.computeIfAbsent(catalog, k -> new AtomicLong(initialVersion));
+    }
+
+    private byte[] render(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render catalog response", e);
+        }
+    }
+
+    // So sánh yếu: bỏ tiền tố W/ ở cả hai phía
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
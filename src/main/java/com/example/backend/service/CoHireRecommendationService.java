@@ -0,0 +1,183 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.SimilarPlayerDTO;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.util.LongIntHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// "Người thuê X cũng thuê Y": ma trận đồng xuất hiện item-item thưa từ các lượt HIRE.
+// Khóa cặp (i << 32 | j, i < j) đếm trong LongIntHashMap; mỗi nhánh fork/join đếm trên một dải người thuê rồi gộp.
+// Kết quả là danh sách láng giềng tính sẵn cho từng player, tra cứu O(1).
+@Service
+public class CoHireRecommendationService {
+    private static final int LEAF_HIRERS = 512;
+    private static final Comparator<SimilarPlayerDTO> BY_SIMILARITY = Comparator
+            .comparingDouble(SimilarPlayerDTO::getSimilarity)
+            .thenComparingInt(SimilarPlayerDTO::getCoHires);
+
+    private final PaymentRepository paymentRepository;
+    private final UserRepository userRepository;
+    private volatile Map<Long, List<SimilarPlayerDTO>> neighbors = Map.of();
+
+    @Value("${recommendations.parallelism:4}")
+    private int parallelism;
+
+    @Value("${recommendations.neighbors:20}")
+    private int neighborLimit;
+
+    @Value("${recommendations.min-co-hires:2}")
+    private int minCoHires;
+
+    // Người thuê quá nhiều player khác nhau tạo O(n^2) cặp mà ít mang thông tin nên bị bỏ qua
+    @Value("${recommendations.max-players-per-hirer:200}")
+    private int maxPlayersPerHirer;
+
+    public CoHireRecommendationService(PaymentRepository paymentRepository, UserRepository userRepository) {
+        this.paymentRepository = paymentRepository;
+        this.userRepository = userRepository;
+    }
+
+    public List<SimilarPlayerDTO> getSimilarPlayers(Long playerId, int limit) {
+        List<SimilarPlayerDTO> list = neighbors.getOrDefault(playerId, List.of());
+        return list.subList(0, Math.max(0, Math.min(limit, list.size())));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${recommendations.rebuild-interval-ms:21600000}",
+               initialDelayString = "${recommendations.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        // Hàng đã sắp theo người thuê: gom thành giỏ player (chỉ số dày) của từng người
+        List<Object[]> pairs = paymentRepository.findHirerPlayerPairs();
+        long[] playerIds = pairs.stream().mapToLong(p -> ((Number) p[1]).longValue()).distinct().sorted().toArray();
+        int[] hirerCounts = new int[playerIds.length];
+        List<int[]> baskets = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= pairs.size(); i++) {
+            if (i < pairs.size() && ((Number) pairs.get(i)[0]).longValue() == ((Number) pairs.get(start)[0]).longValue()) {
+                continue;
+            }
+            int[] basket = new int[i - start];
+            for (int k = start; k < i; k++) {
+                basket[k - start] = Arrays.binarySearch(playerIds, ((Number) pairs.get(k)[1]).longValue());
+                hirerCounts[basket[k - start]]++;
+            }
+            if (basket.length > 1 && basket.length <= maxPlayersPerHirer) {
+                Arrays.sort(basket);
+                baskets.add(basket);
+            }
+            start = i;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        LongIntHashMap coCounts;
+        try {
+            coCounts = pool.invoke(new CoOccurrenceTask(baskets, 0, baskets.size()));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<PriorityQueue<SimilarPlayerDTO>> heaps = new ArrayList<>(playerIds.length);
+        for (int i = 0; i < playerIds.length; i++) {
+            heaps.add(new PriorityQueue<>(BY_SIMILARITY));
+        }
+        coCounts.forEach((key, count) -> {
+            if (count < minCoHires) return;
+            int a = (int) (key >>> 32);
+            int b = (int) key;
+            double similarity = count / Math.sqrt((double) hirerCounts[a] * hirerCounts[b]);
+            offer(heaps.get(a), new SimilarPlayerDTO(playerIds[b], null, count, similarity));
+            offer(heaps.get(b), new SimilarPlayerDTO(playerIds[a], null, count, similarity));
+        });
+
+        List<Long> referenced = new ArrayList<>();
+        for (int i = 0; i < playerIds.length; i++) {
+            if (!heaps.get(i).isEmpty()) referenced.add(playerIds[i]);
+        }
+        Map<Long, String> usernames = new HashMap<>();
+        for (int i = 0; i < referenced.size(); i += 1000) {
+            for (Object[] row : userRepository.findUsernamesByIds(referenced.subList(i, Math.min(i + 1000, referenced.size())))) {
+                usernames.put((Long) row[0], (String) row[1]);
+            }
+        }
+
+        Map<Long, List<SimilarPlayerDTO>> fresh = new HashMap<>(referenced.size() * 2);
+        for (int i = 0; i < playerIds.length; i++) {
+            PriorityQueue<SimilarPlayerDTO> heap = heaps.get(i);
+            if (heap.isEmpty()) continue;
+            List<SimilarPlayerDTO> list = new ArrayList<>(heap);
+            list.sort(BY_SIMILARITY.reversed());
+            list.forEach(n -> n.setUsername(usernames.get(n.getPlayerId())));
+            fresh.put(playerIds[i], List.copyOf(list));
+        }
+        neighbors = fresh;
+    }
+
+    // Giữ neighborLimit láng giềng tốt nhất: heap tối thiểu, phần tử yếu nhất ở đỉnh
+    private void offer(PriorityQueue<SimilarPlayerDTO> heap, SimilarPlayerDTO candidate) {
+        if (heap.size() < neighborLimit) {
+            heap.add(candidate);
+        } else if (BY_SIMILARITY.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+
+    private static final class CoOccurrenceTask extends RecursiveTask<LongIntHashMap> {
+        private final List<int[]> baskets;
+        private final int from;
+        private final int to;
+
+        CoOccurrenceTask(List<int[]> baskets, int from, int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongIntHashMap compute() {
+            if (to - from <= LEAF_HIRERS) {
+                LongIntHashMap counts = new LongIntHashMap();
+                for (int h = from; h < to; h++) {
+                    int[] basket = baskets.get(h);
+                    for (int x = 0; x < basket.length; x++) {
+                        for (int y = x + 1; y < basket.length; y++) {
+                            counts.addTo(((long) basket[x] << 32) | basket[y], 1);
+                        }
+                    }
+                }
+                return counts;
+            }
+            int mid = (from + to) >>> 1;
+            CoOccurrenceTask left = new CoOccurrenceTask(baskets, from, mid);
+            left.fork();
+            LongIntHashMap right = new CoOccurrenceTask(baskets, mid, to).compute();
+            LongIntHashMap merged = left.join();
+            // Gộp map nhỏ vào map lớn
+            if (merged.size() < right.size()) {
+                right.addAll(merged);
+                return right;
+            }
+            merged.addAll(right);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DemandHeatmapDTO;
+import com.example.backend.event.HireCreatedEvent;
+import com.example.backend.repository.GamePlayerRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ma trận nhu cầu 7x24 theo giờ bắt đầu thuê, cho từng game và từng player.
+// Event chỉ cộng vào mảng long[] trong bộ nhớ; định kỳ cộng dồn xuống bảng hire_demand_heatmap.
+// Một lượt thuê được tính cho mọi game mà player có hồ sơ (payment không gắn game).
+@Service
+public class DemandHeatmapService {
+    public static final String SCOPE_GAME = "GAME";
+    public static final String SCOPE_PLAYER = "PLAYER";
+
+    private static final int DAYS = 7;
+    private static final int HOURS = 24;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO hire_demand_heatmap (scope_type, scope_id, day_of_week, hour_of_day, hire_count) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE hire_count = hire_count + VALUES(hire_count)";
+
+    private static final String SELECT_SQL =
+            "SELECT day_of_week, hour_of_day, hire_count FROM hire_demand_heatmap " +
+            "WHERE scope_type = ? AND scope_id = ?";
+
+    private static final String REBUILD_PLAYER_SQL =
+            "INSERT INTO hire_demand_heatmap (scope_type, scope_id, day_of_week, hour_of_day, hire_count) " +
+            "SELECT 'PLAYER', p.player_id, WEEKDAY(p.start_time) + 1, HOUR(p.start_time), COUNT(*) " +
+            "FROM payments p " +
+            "WHERE p.type = 'HIRE' AND p.player_id IS NOT NULL AND p.start_time IS NOT NULL " +
+            "GROUP BY p.player_id, WEEKDAY(p.start_time), HOUR(p.start_time)";
+
+    private static final String REBUILD_GAME_SQL =
+            "INSERT INTO hire_demand_heatmap (scope_type, scope_id, day_of_week, hour_of_day, hire_count) " +
+            "SELECT 'GAME', gp.game_id, WEEKDAY(p.start_time) + 1, HOUR(p.start_time), COUNT(*) " +
+            "FROM payments p " +
+            "JOIN (SELECT DISTINCT user_id, game_id FROM game_players) gp ON gp.user_id = p.player_id " +
+            "WHERE p.type = 'HIRE' AND p.start_time IS NOT NULL " +
+            "GROUP BY gp.game_id, WEEKDAY(p.start_time), HOUR(p.start_time)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GamePlayerRepository gamePlayerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Object pendingLock = new Object();
+    private final Object flushLock = new Object(); // flush và rebuild không ghi xuống bảng cùng lúc
+    private Map<String, long[]> pending = new HashMap<>(); // "GAME:1" -> 168 ô chưa ghi xuống DB
+
+    @Value("${analytics.heatmap.best-hours:5}")
+    private int bestHoursLimit;
+
+    public DemandHeatmapService(JdbcTemplate jdbcTemplate,
+                                GamePlayerRepository gamePlayerRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gamePlayerRepository = gamePlayerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHireCreated(HireCreatedEvent event) {
+        LocalDateTime start = event.getStartTime();
+        if (start == null || event.getPlayerId() == null) return;
+        int slot = (start.getDayOfWeek().getValue() - 1) * HOURS + start.getHour();
+        List<Long> gameIds = gamePlayerRepository.findGameIdsByUserId(event.getPlayerId());
+
+        synchronized (pendingLock) {
+            pending.computeIfAbsent(key(SCOPE_PLAYER, event.getPlayerId()), k -> new long[DAYS * HOURS])[slot]++;
+            for (Long gameId : gameIds) {
+                pending.computeIfAbsent(key(SCOPE_GAME, gameId), k -> new long[DAYS * HOURS])[slot]++;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.heatmap.flush-interval-ms:60000}")
+    @PreDestroy
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, long[]> drained;
+            synchronized (pendingLock) {
+                if (pending.isEmpty()) return;
+                drained = pending;
+                pending = new HashMap<>();
+            }
+
+            List<Object[]> rows = new ArrayList<>();
+            for (Map.Entry<String, long[]> e : drained.entrySet()) {
+                String[] parts = e.getKey().split(":");
+                long[] cells = e.getValue();
+                for (int slot = 0; slot < cells.length; slot++) {
+                    if (cells[slot] != 0) {
+                        rows.add(new Object[]{parts[0], Long.parseLong(parts[1]),
+                            slot / HOURS + 1, slot % HOURS, cells[slot]});
+                    }
+                }
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+            } catch (RuntimeException e) {
+                // Trả lại phần chưa ghi để lần flush sau thử lại
+                synchronized (pendingLock) {
+                    drained.forEach((k, cells) -> {
+                        long[] target = pending.computeIfAbsent(k, x -> new long[DAYS * HOURS]);
+                        for (int i = 0; i < cells.length; i++) target[i] += cells[i];
+                    });
+                }
+                throw e;
+            }
+        }
+    }
+
+    public DemandHeatmapDTO getHeatmap(String scope, Long scopeId) {
+        long[][] matrix = new long[DAYS][HOURS];
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            matrix[rs.getInt(1) - 1][rs.getInt(2)] += rs.getLong(3);
+        }, scope, scopeId);
+
+        synchronized (pendingLock) {
+            long[] cells = pending.get(key(scope, scopeId));
+            if (cells != null) {
+                for (int slot = 0; slot < cells.length; slot++) {
+                    matrix[slot / HOURS][slot % HOURS] += cells[slot];
+                }
+            }
+        }
+
+        long total = 0;
+        List<DemandHeatmapDTO.Slot> slots = new ArrayList<>();
+        for (int d = 0; d < DAYS; d++) {
+            for (int h = 0; h < HOURS; h++) {
+                total += matrix[d][h];
+                if (matrix[d][h] > 0) {
+                    slots.add(new DemandHeatmapDTO.Slot(d + 1, h, matrix[d][h]));
+                }
+            }
+        }
+        slots.sort((a, b) -> Long.compare(b.getHires(), a.getHires()));
+        List<DemandHeatmapDTO.Slot> best = new ArrayList<>(slots.subList(0, Math.min(bestHoursLimit, slots.size())));
+        return new DemandHeatmapDTO(scope, scopeId, matrix, total, best);
+    }
+
+    // Dựng lại toàn bộ từ payments; phần đang chờ flush đã nằm trong payments nên bỏ đi.
+    // Giữ pendingLock tới khi commit: event đến trong lúc dựng lại phải chờ, không bị xóa mất hay cộng trước bản mới
+    public void rebuild() {
+        synchronized (flushLock) {
+            synchronized (pendingLock) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("DELETE FROM hire_demand_heatmap");
+                    jdbcTemplate.update(REBUILD_PLAYER_SQL);
+                    jdbcTemplate.update(REBUILD_GAME_SQL);
+                });
+                pending = new HashMap<>();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        Long cells = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hire_demand_heatmap", Long.class);
+        if (cells == null || cells == 0) {
+            rebuild();
+        }
+    }
+
+    private static String key(String scope, Long id) {
+        return scope + ":" + id;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.PendingDeposit;
+import com.example.backend.entity.Payment;
+import com.example.backend.entity.User;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@Transactional
+public class DepositService {
+    private final PaymentRepository paymentRepository;
+    private final UserRepository userRepository;
+    private final PaymentRollupService paymentRollupService;
+
+    public DepositService(PaymentRepository paymentRepository,
+                          UserRepository userRepository,
+                          PaymentRollupService paymentRollupService) {
+        this.paymentRepository = paymentRepository;
+        this.userRepository = userRepository;
+        this.paymentRollupService = paymentRollupService;
+    }
+
+    // Ghi nhận yêu cầu nạp tiền ở trạng thái PENDING, được cộng tiền khi đối soát/callback khớp transactionId
+    public Payment createIntent(User user, String method, BigDecimal amount, String transactionId) {
+        Payment payment = new Payment();
+        payment.setUser(user);
+        payment.setAmount(amount);
+        payment.setCurrency("VND");
+        payment.setStatus("PENDING");
+        payment.setPaymentMethod(method);
+        payment.setType("TOPUP");
+        payment.setTransactionId(transactionId);
+        payment.setCreatedAt(LocalDateTime.now());
+        return paymentRepository.save(payment);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PendingDeposit> findPendingDeposits(Collection<String> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return List.of();
+        }
+        return paymentRepository.findPendingDeposits(transactionIds);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PendingDeposit> findPendingDeposits(Collection<String> transactionIds, String paymentMethod) {
+        if (transactionIds.isEmpty()) {
+            return List.of();
+        }
+        return paymentRepository.findPendingDepositsByMethod(transactionIds, paymentMethod);
+    }
+
+    // Intent PENDING của chính người dùng, để dựng lại QR từ dữ liệu đã lưu thay vì tham số client gửi lên
+    @Transactional(readOnly = true)
+    public Optional<PendingDeposit> findOwnPendingDeposit(Long userId, String transactionId) {
+        return paymentRepository.findPendingDeposits(List.of(transactionId)).stream()
+                .filter(deposit -> deposit.getUserId().equals(userId))
+                .findFirst();
+    }
+
+    // Cộng tiền cho cả lô trong một transaction. Mỗi intent chỉ được cộng một lần:
+    // UPDATE có điều kiện status = 'PENDING' quyết định intent nào thực sự được xử lý.
+    public List<PendingDeposit> creditDeposits(Collection<PendingDeposit> deposits) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingDeposit> credited = new ArrayList<>();
+        Map<Long, BigDecimal> creditsByUser = new HashMap<>();
+
+        for (PendingDeposit deposit : deposits) {
+            if (paymentRepository.completePending(deposit.getPaymentId(), now) == 1) {
+                credited.add(deposit);
+                creditsByUser.merge(deposit.getUserId(), deposit.getAmount(), BigDecimal::add);
+                // UPDATE hàng loạt không qua entity listener nên cập nhật rollup trực tiếp
+                paymentRollupService.applyDelta(deposit.getCreatedAt().toLocalDate(), "TOPUP",
+                        deposit.getPaymentMethod(), deposit.getCurrency(), 1, deposit.getAmount());
+            }
+        }
+        creditsByUser.forEach(userRepository::creditWallet);
+        return credited;
+    }
+}
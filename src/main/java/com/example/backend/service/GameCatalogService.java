@@ -0,0 +1,150 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.GameCatalogItem;
+import com.example.backend.entity.Game;
+import com.example.backend.event.GameChangedEvent;
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.repository.GameRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Ảnh chụp bất biến của danh mục game (kèm role/rank), nạp trong 3 truy vấn và thay nguyên khối sau mỗi lần ghi Game.
+// Tra cứu game, kiểm tra role/rank và so khớp tên game đọc từ ảnh chụp thay vì DB.
+@Service
+public class GameCatalogService {
+    private final GameRepository gameRepository;
+    private final CatalogCacheService catalogCacheService;
+    private volatile Snapshot snapshot;
+
+    public GameCatalogService(GameRepository gameRepository, CatalogCacheService catalogCacheService) {
+        this.gameRepository = gameRepository;
+        this.catalogCacheService = catalogCacheService;
+    }
+
+    public List<GameCatalogItem> getAll() {
+        return snapshot().games;
+    }
+
+    // Map.copyOf ném NPE khi get(null), nên chặn khóa null trước khi tra
+    public Optional<GameCatalogItem> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(snapshot().byId.get(id));
+    }
+
+    public Optional<GameCatalogItem> findByName(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(snapshot().byName.get(name));
+    }
+
+    public GameCatalogItem getById(Long id) {
+        return findById(id).orElseThrow(() -> new ResourceNotFoundException("Game not found with id: " + id));
+    }
+
+    public boolean requiresRole(Long gameId) {
+        return findById(gameId).map(GameCatalogItem::isHasRoles).orElse(false);
+    }
+
+    // Trả về role theo cách viết chuẩn của game, null nếu game không khai báo role đó
+    public String matchRole(GameCatalogItem game, String role) {
+        return match(game.getAvailableRoles(), role);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGameChanged(GameChangedEvent event) {
+        reload();
+    }
+
+    // Tăng phiên bản cache HTTP sau khi đã thay ảnh chụp, để bản render mới không đọc lại dữ liệu cũ
+    public synchronized void reload() {
+        snapshot = load();
+        // Card game player chứa tên game
+        catalogCacheService.bump(CatalogCacheService.GAMES, CatalogCacheService.AVAILABLE_PLAYERS);
+    }
+
+    // Nạp trễ nếu có ghi GamePlayer trước ApplicationReadyEvent (ví dụ dữ liệu khởi tạo)
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        Map<Long, List<String>> roles = groupById(gameRepository.findAllRoles());
+        Map<Long, List<String>> ranks = groupById(gameRepository.findAllRanks());
+        List<GameCatalogItem> games = new ArrayList<>();
+        for (Game game : gameRepository.findAll()) {
+            games.add(new GameCatalogItem(game.getId(), game.getName(), game.getDescription(), game.getCategory(),
+                    game.getPlatform(), game.getStatus(), game.getImageUrl(), game.getWebsiteUrl(),
+                    game.getRequirements(), Boolean.TRUE.equals(game.getHasRoles()),
+                    List.copyOf(roles.getOrDefault(game.getId(), List.of())),
+                    List.copyOf(ranks.getOrDefault(game.getId(), List.of()))));
+        }
+        games.sort(Comparator.comparing(GameCatalogItem::getId));
+        return new Snapshot(games);
+    }
+
+    private static Map<Long, List<String>> groupById(List<Object[]> rows) {
+        Map<Long, List<String>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                grouped.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+        return grouped;
+    }
+
+    // So khớp không phân biệt hoa thường, bỏ khoảng trắng hai đầu
+    private static String match(List<String> values, String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim();
+        for (String candidate : values) {
+            if (candidate.trim().equalsIgnoreCase(normalized)) {
+                return candidate.trim();
+            }
+        }
+        return null;
+    }
+
+    private static final class Snapshot {
+        final List<GameCatalogItem> games;
+        final Map<Long, GameCatalogItem> byId;
+        final Map<String, GameCatalogItem> byName;
+
+        Snapshot(List<GameCatalogItem> games) {
+            Map<Long, GameCatalogItem> ids = new HashMap<>();
+            Map<String, GameCatalogItem> names = new HashMap<>();
+            for (GameCatalogItem game : games) {
+                ids.put(game.getId(), game);
+                // Map.copyOf không nhận khóa null
+                if (game.getName() != null) {
+                    names.put(game.getName(), game);
+                }
+            }
+            this.games = List.copyOf(games);
+            this.byId = Map.copyOf(ids);
+            this.byName = Map.copyOf(names);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.backend.service;
+
+import com.example.backend.event.GamePlayerChangedEvent;
+import com.example.backend.event.HireEvent;
+import com.example.backend.event.ScheduleChangedEvent;
+import com.example.backend.repository.GamePlayerRepository;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.ScheduleRepository;
+import com.example.backend.util.RebuildCoordinator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Chỉ mục rảnh/bận theo ô 15 phút trên cửa sổ trượt horizon-days ngày (cộng thêm một chu kỳ dựng lại) kể từ lần dựng gần nhất.
+// Mỗi ô giữ một BitSet các game player bận (lịch PENDING/CONFIRMED + lượt thuê ACTIVE của chủ hồ sơ),
+// nên "ai rảnh trong [from, to)" = thành viên của game AND NOT (OR các ô trong khoảng).
+@Service
+public class GamePlayerAvailabilityService {
+    public static final int SLOT_MINUTES = 15;
+
+    private final ScheduleRepository scheduleRepository;
+    private final PaymentRepository paymentRepository;
+    private final GamePlayerRepository gamePlayerRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildCoordinator<Long> coordinator = new RebuildCoordinator<>(); // key = game player id
+    private State state;
+
+    @Value("${availability.horizon-days:14}")
+    private int horizonDays;
+
+    @Value("${availability.rebuild-interval-ms:3600000}")
+    private long rebuildIntervalMs;
+
+    public GamePlayerAvailabilityService(ScheduleRepository scheduleRepository,
+                                         PaymentRepository paymentRepository,
+                                         GamePlayerRepository gamePlayerRepository) {
+        this.scheduleRepository = scheduleRepository;
+        this.paymentRepository = paymentRepository;
+        this.gamePlayerRepository = gamePlayerRepository;
+        this.state = new State(currentSlotStart(), 0);
+    }
+
+    // gameId null = mọi game; trả về id game player rảnh suốt [from, to)
+    public List<Long> findAvailable(Long gameId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Availability window start must be before end");
+        }
+        lock.readLock().lock();
+        try {
+            State s = state;
+            int fromSlot = Math.max(0, s.slotFloor(from));
+            int toSlot = s.slotCeil(to);
+            // Giới hạn tính từ hiện tại chứ không từ origin (có thể cũ tới một chu kỳ dựng lại)
+            if (to.isAfter(LocalDateTime.now().plusDays(horizonDays)) || toSlot > s.slotCount) {
+                throw new IllegalArgumentException("Availability window exceeds the " + horizonDays + "-day horizon");
+            }
+            BitSet members = gameId == null ? s.allMembers : s.membersByGame.get(gameId);
+            if (members == null) {
+                return List.of();
+            }
+            BitSet free = (BitSet) members.clone();
+            for (int slot = fromSlot; slot < toSlot && !free.isEmpty(); slot++) {
+                free.andNot(s.busyBySlot[slot]);
+            }
+            List<Long> ids = new ArrayList<>(free.cardinality());
+            for (int i = free.nextSetBit(0); i >= 0; i = free.nextSetBit(i + 1)) {
+                ids.add(s.ids.get(i));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    // Dựng lại định kỳ để cửa sổ trượt theo thời gian
+    @Scheduled(fixedDelayString = "${availability.rebuild-interval-ms:3600000}",
+               initialDelayString = "${availability.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        coordinator.rebuild(this::load, fresh -> withWriteLock(() -> state = fresh), this::refresh);
+    }
+
+    private State load() {
+        LocalDateTime origin = currentSlotStart();
+        // Thêm số ô của một chu kỳ dựng lại để tới lần dựng sau vẫn phủ đủ horizon-days kể từ hiện tại
+        long marginSlots = (rebuildIntervalMs / 60_000 + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        State fresh = new State(origin, (int) (horizonDays * 24 * 60 / SLOT_MINUTES + marginSlots));
+        LocalDateTime end = fresh.slotStart(fresh.slotCount);
+
+        Map<Long, List<Integer>> byOwner = new HashMap<>();
+        for (Object[] row : gamePlayerRepository.findAllOwnership()) {
+            int index = fresh.register((Long) row[0], (Long) row[2]);
+            byOwner.computeIfAbsent((Long) row[1], k -> new ArrayList<>()).add(index);
+        }
+        for (Object[] row : scheduleRepository.findBusyIntervals(origin, end)) {
+            Integer index = fresh.indexById.get((Long) row[0]);
+            if (index != null) {
+                fresh.markBusy(index, (LocalDateTime) row[1], (LocalDateTime) row[2]);
+            }
+        }
+        for (Object[] row : paymentRepository.findActiveHireIntervals(origin, end)) {
+            for (Integer index : byOwner.getOrDefault((Long) row[0], List.of())) {
+                fresh.markBusy(index, (LocalDateTime) row[1], (LocalDateTime) row[2]);
+            }
+        }
+        return fresh;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        Long id = event.getGamePlayerId();
+        coordinator.update(id, () -> refresh(id));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHireChanged(HireEvent event) {
+        if (event.getPlayerId() == null) return;
+        for (Long gamePlayerId : gamePlayerRepository.findIdsByUserId(event.getPlayerId())) {
+            coordinator.update(gamePlayerId, () -> refresh(gamePlayerId));
+        }
+    }
+
+    // Chỉ cần xử lý hồ sơ mới, bị xóa hoặc đổi game; đổi giá/rating không ảnh hưởng lịch bận
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGamePlayerChanged(GamePlayerChangedEvent event) {
+        Long id = event.getGamePlayerId();
+        if (event.isDeleted()) {
+            coordinator.update(id, () -> withWriteLock(() -> state.unregister(id)));
+        } else {
+            coordinator.update(id, () -> refreshIfGameChanged(id));
+        }
+    }
+
+    private void refreshIfGameChanged(Long id) {
+        List<Object[]> ownership = gamePlayerRepository.findOwnershipById(id);
+        if (ownership.isEmpty()) return;
+        Long gameId = (Long) ownership.get(0)[2];
+        lock.readLock().lock();
+        try {
+            Integer index = state.indexById.get(id);
+            if (index != null && gameId.equals(state.gameIds.get(index))) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        refresh(id);
+    }
+
+    // Đọc lịch bận mới nhất đã commit; gọi qua coordinator nên không chạy song song cho cùng id
+    private void refresh(Long gamePlayerId) {
+        List<Object[]> ownership = gamePlayerRepository.findOwnershipById(gamePlayerId);
+        if (ownership.isEmpty()) {
+            withWriteLock(() -> state.unregister(gamePlayerId));
+            return;
+        }
+        Long ownerId = (Long) ownership.get(0)[1];
+        Long gameId = (Long) ownership.get(0)[2];
+        State s;
+        lock.readLock().lock();
+        try {
+            s = state;
+        } finally {
+            lock.readLock().unlock();
+        }
+        LocalDateTime from = s.origin;
+        LocalDateTime to = s.slotStart(s.slotCount);
+        List<Object[]> intervals = new ArrayList<>(
+                scheduleRepository.findBusyIntervalsByGamePlayerId(gamePlayerId, from, to));
+        intervals.addAll(paymentRepository.findActiveHireIntervalsByPlayerId(ownerId, from, to));
+
+        withWriteLock(() -> {
+            // Vừa dựng lại trong lúc đọc: coordinator sẽ đọc lại id này theo cửa sổ của bản mới
+            if (state != s) return;
+            int index = state.register(gamePlayerId, gameId);
+            state.clearBusy(index);
+            for (Object[] row : intervals) {
+                state.markBusy(index, (LocalDateTime) row[1], (LocalDateTime) row[2]);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static LocalDateTime currentSlotStart() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        return now.minusMinutes(now.getMinute() % SLOT_MINUTES);
+    }
+
+    private static final class State {
+        final LocalDateTime origin;
+        final int slotCount;
+        final BitSet[] busyBySlot;
+        final Map<Long, Integer> indexById = new HashMap<>();
+        final List<Long> ids = new ArrayList<>();
+        final List<Long> gameIds = new ArrayList<>();
+        final Map<Long, BitSet> membersByGame = new HashMap<>();
+        final BitSet allMembers = new BitSet();
+
+        State(LocalDateTime origin, int slotCount) {
+            this.origin = origin;
+            this.slotCount = slotCount;
+            this.busyBySlot = new BitSet[slotCount];
+            for (int i = 0; i < slotCount; i++) {
+                busyBySlot[i] = new BitSet();
+            }
+        }
+
+        LocalDateTime slotStart(int slot) {
+            return origin.plusMinutes((long) slot * SLOT_MINUTES);
+        }
+
+        int slotFloor(LocalDateTime time) {
+            return (int) Math.floorDiv(Duration.between(origin, time).toMinutes(), SLOT_MINUTES);
+        }
+
+        int slotCeil(LocalDateTime time) {
+            long seconds = Duration.between(origin, time).getSeconds();
+            return (int) -Math.floorDiv(-seconds, SLOT_MINUTES * 60L);
+        }
+
+        // Trả về chỉ số dày; cập nhật game nếu hồ sơ đã đổi game
+        int register(Long id, Long gameId) {
+            Integer index = indexById.get(id);
+            if (index == null) {
+                index = ids.size();
+                ids.add(id);
+                gameIds.add(gameId);
+                indexById.put(id, index);
+            } else if (!gameId.equals(gameIds.get(index))) {
+                BitSet old = membersByGame.get(gameIds.get(index));
+                if (old != null) old.clear(index);
+                gameIds.set(index, gameId);
+            }
+            membersByGame.computeIfAbsent(gameId, k -> new BitSet()).set(index);
+            allMembers.set(index);
+            return index;
+        }
+
+        // Chỉ số không tái sử dụng; hồ sơ bị xóa chỉ bị gỡ khỏi tập thành viên
+        void unregister(Long id) {
+            Integer index = indexById.get(id);
+            if (index == null) return;
+            BitSet members = membersByGame.get(gameIds.get(index));
+            if (members != null) members.clear(index);
+            allMembers.clear(index);
+            clearBusy(index);
+        }
+
+        void markBusy(int index, LocalDateTime start, LocalDateTime end) {
+            if (start == null || end == null) return;
+            int from = Math.max(0, slotFloor(start));
+            int to = Math.min(slotCount, slotCeil(end));
+            for (int slot = from; slot < to; slot++) {
+                busyBySlot[slot].set(index);
+            }
+        }
+
+        void clearBusy(int index) {
+            for (BitSet slot : busyBySlot) {
+                slot.clear(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.FacetSearchResultDTO;
+import com.example.backend.dto.GamePlayerCardDTO;
+import com.example.backend.event.GamePlayerChangedEvent;
+import com.example.backend.event.GamePlayerReleasedEvent;
+import com.example.backend.repository.GamePlayerRepository;
+import com.example.backend.util.RebuildCoordinator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Chỉ mục facet trong bộ nhớ: mỗi giá trị của game/rank/role/server/status/khoảng giá là một BitSet theo slot.
+// Truy vấn = AND giữa các facet, OR trong cùng facet; số đếm của facet F tính với bộ lọc của các facet còn lại.
+@Service
+public class GamePlayerFacetService {
+    public static final String GAME = "game";
+    public static final String RANK = "rank";
+    public static final String ROLE = "role";
+    public static final String SERVER = "server";
+    public static final String STATUS = "status";
+    public static final String PRICE = "price";
+    private static final List<String> FACETS = List.of(GAME, RANK, ROLE, SERVER, STATUS, PRICE);
+
+    private static final Comparator<GamePlayerCardDTO> BROWSE_ORDER = Comparator
+            .comparing(GamePlayerCardDTO::getRating, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(GamePlayerCardDTO::getId, Comparator.reverseOrder());
+
+    private final GamePlayerRepository gamePlayerRepository;
+    private final BigDecimal[] priceBounds;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildCoordinator<Long> coordinator = new RebuildCoordinator<>();
+    private Index index = new Index();
+
+    @Value("${facet.max-page-size:100}")
+    private int maxPageSize;
+
+    public GamePlayerFacetService(GamePlayerRepository gamePlayerRepository,
+                                  @Value("${facet.price-buckets:50000,100000,200000,500000}") String priceBuckets) {
+        this.gamePlayerRepository = gamePlayerRepository;
+        this.priceBounds = Arrays.stream(priceBuckets.split(","))
+                .map(String::trim)
+                .map(BigDecimal::new)
+                .sorted()
+                .toArray(BigDecimal[]::new);
+    }
+
+    // filters: facet -> các giá trị được chọn (facet không có trong map thì không lọc)
+    public FacetSearchResultDTO search(Map<String, List<String>> filters, int offset, int limit) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selected = new HashMap<>();
+            filters.forEach((facet, values) -> {
+                if (values != null && !values.isEmpty() && FACETS.contains(facet)) {
+                    selected.put(facet, index.union(facet, values));
+                }
+            });
+
+            BitSet matches = index.matching(selected, null);
+            Map<String, Map<String, Integer>> facetCounts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet others = selected.containsKey(facet) ? index.matching(selected, facet) : matches;
+                Map<String, Integer> counts = new LinkedHashMap<>();
+                index.bitmaps.getOrDefault(facet, Map.of()).forEach((value, bits) -> {
+                    BitSet tmp = (BitSet) bits.clone();
+                    tmp.and(others);
+                    int count = tmp.cardinality();
+                    if (count > 0) counts.put(value, count);
+                });
+                facetCounts.put(facet, counts);
+            }
+
+            List<GamePlayerCardDTO> cards = new ArrayList<>(matches.cardinality());
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                cards.add(index.cards.get(slot));
+            }
+            cards.sort(BROWSE_ORDER);
+            int from = Math.min(Math.max(0, offset), cards.size());
+            int to = Math.min(from + size, cards.size());
+            return new FacetSearchResultDTO(cards.size(), facetCounts, new ArrayList<>(cards.subList(from, to)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        coordinator.rebuild(this::load, fresh -> withWriteLock(() -> index = fresh), this::refresh);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGamePlayerChanged(GamePlayerChangedEvent event) {
+        Long id = event.getGamePlayerId();
+        if (event.isDeleted()) {
+            coordinator.update(id, () -> withWriteLock(() -> index.remove(id)));
+        } else {
+            coordinator.update(id, () -> refresh(id));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGamePlayerReleased(GamePlayerReleasedEvent event) {
+        Long id = event.getGamePlayerId();
+        coordinator.update(id, () -> refresh(id));
+    }
+
+    private Index load() {
+        Index fresh = new Index();
+        for (GamePlayerCardDTO card : gamePlayerRepository.findAllCards()) {
+            fresh.put(card, facetValues(card));
+        }
+        return fresh;
+    }
+
+    // Đọc bản mới nhất đã commit; gọi qua coordinator nên không chạy song song cho cùng id
+    private void refresh(Long gamePlayerId) {
+        GamePlayerCardDTO card = gamePlayerRepository.findCardById(gamePlayerId).orElse(null);
+        withWriteLock(() -> {
+            if (card == null) {
+                index.remove(gamePlayerId);
+            } else {
+                index.put(card, facetValues(card));
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Cùng thứ tự với FACETS; null = không gắn vào facet đó
+    private String[] facetValues(GamePlayerCardDTO card) {
+        return new String[]{
+            card.getGameId() == null ? null : card.getGameId().toString(),
+            card.getRank(),
+            card.getRole(),
+            card.getServer(),
+            card.getStatus(),
+            priceBucket(card.getPricePerHour())
+        };
+    }
+
+    private String priceBucket(BigDecimal price) {
+        if (price == null) return null;
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal bound : priceBounds) {
+            if (price.compareTo(bound) < 0) {
+                return lower.toPlainString() + "-" + bound.toPlainString();
+            }
+            lower = bound;
+        }
+        return lower.toPlainString() + "+";
+    }
+
+    private static final class Index {
+        final Map<Long, Integer> slotById = new HashMap<>();
+        final List<GamePlayerCardDTO> cards = new ArrayList<>();
+        final List<String[]> values = new ArrayList<>();
+        final Deque<Integer> freeSlots = new ArrayDeque<>();
+        final BitSet live = new BitSet();
+        final Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+
+        void put(GamePlayerCardDTO card, String[] facetValues) {
+            remove(card.getId());
+            Integer slot = freeSlots.poll();
+            if (slot == null) {
+                slot = cards.size();
+                cards.add(card);
+                values.add(facetValues);
+            } else {
+                cards.set(slot, card);
+                values.set(slot, facetValues);
+            }
+            slotById.put(card.getId(), slot);
+            live.set(slot);
+            for (int i = 0; i < FACETS.size(); i++) {
+                if (facetValues[i] != null) {
+                    bitmaps.computeIfAbsent(FACETS.get(i), k -> new HashMap<>())
+                           .computeIfAbsent(facetValues[i], k -> new BitSet())
+                           .set(slot);
+                }
+            }
+        }
+
+        void remove(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) return;
+            String[] old = values.get(slot);
+            for (int i = 0; i < FACETS.size(); i++) {
+                if (old[i] == null) continue;
+                Map<String, BitSet> facet = bitmaps.get(FACETS.get(i));
+                BitSet bits = facet.get(old[i]);
+                bits.clear(slot);
+                if (bits.isEmpty()) facet.remove(old[i]);
+            }
+            live.clear(slot);
+            cards.set(slot, null);
+            values.set(slot, null);
+            freeSlots.push(slot);
+        }
+
+        BitSet union(String facet, List<String> selectedValues) {
+            BitSet result = new BitSet();
+            Map<String, BitSet> facetBits = bitmaps.getOrDefault(facet, Map.of());
+            for (String value : selectedValues) {
+                BitSet bits = facetBits.get(value);
+                if (bits != null) result.or(bits);
+            }
+            return result;
+        }
+
+        // AND các bộ lọc, bỏ qua facet excluded
+        BitSet matching(Map<String, BitSet> selected, String excluded) {
+            BitSet result = (BitSet) live.clone();
+            selected.forEach((facet, bits) -> {
+                if (!facet.equals(excluded)) result.and(bits);
+            });
+            return result;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.GamePlayerCardDTO;
+import com.example.backend.dto.GamePlayerSearchCriteria;
+import com.example.backend.repository.GamePlayerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Tìm game player theo nhiều tiêu chí, phân trang keyset theo (khóa sắp xếp, id).
+// Thứ tự ORDER BY cùng chiều với id để dùng được các index (game_id, status, price_per_hour/rating).
+@Service
+public class GamePlayerSearchService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+    // Tập rảnh nhỏ thì bind thẳng vào IN; lớn hơn thì quét theo thứ tự sắp xếp và lọc trong bộ nhớ,
+    // để không vượt giới hạn placeholder và không gửi hàng chục nghìn tham số mỗi trang
+    private static final int MAX_BOUND_IDS = 1000;
+    private static final int SCAN_CHUNK = 200;
+
+    private enum Sort { RATING_DESC, PRICE_ASC, PRICE_DESC, NEWEST }
+
+    private final EntityManager entityManager;
+    private final GamePlayerAvailabilityService availabilityService;
+
+    public GamePlayerSearchService(EntityManager entityManager, GamePlayerAvailabilityService availabilityService) {
+        this.entityManager = entityManager;
+        this.availabilityService = availabilityService;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<GamePlayerCardDTO> search(GamePlayerSearchCriteria criteria) {
+        Sort sort = parseSort(criteria.getSort());
+        int limit = pageSize(criteria.getSize());
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+
+        addEquals(where, params, "gm.id", "gameId", criteria.getGameId());
+        addEquals(where, params, "g.rank", "rank", blankToNull(criteria.getRank()));
+        addEquals(where, params, "g.role", "role", blankToNull(criteria.getRole()));
+        addEquals(where, params, "g.server", "server", blankToNull(criteria.getServer()));
+        addEquals(where, params, "g.status", "status", blankToNull(criteria.getStatus()));
+        if (criteria.getMinPrice() != null) {
+            where.add("g.pricePerHour >= :minPrice");
+            params.put("minPrice", criteria.getMinPrice());
+        }
+        if (criteria.getMaxPrice() != null) {
+            where.add("g.pricePerHour <= :maxPrice");
+            params.put("maxPrice", criteria.getMaxPrice());
+        }
+        if (criteria.getMinRating() != null) {
+            where.add("g.rating >= :minRating");
+            params.put("minRating", criteria.getMinRating());
+        }
+        Set<Long> freeSet = null;
+        if (criteria.getAvailableFrom() != null || criteria.getAvailableTo() != null) {
+            if (criteria.getAvailableFrom() == null || criteria.getAvailableTo() == null) {
+                throw new IllegalArgumentException("availableFrom and availableTo must be given together");
+            }
+            List<Long> freeIds = availabilityService.findAvailable(
+                    criteria.getGameId(), criteria.getAvailableFrom(), criteria.getAvailableTo());
+            if (freeIds.isEmpty()) {
+                return new CursorPage<>(List.of(), null);
+            }
+            if (freeIds.size() <= MAX_BOUND_IDS) {
+                where.add("g.id IN :availableIds");
+                params.put("availableIds", freeIds);
+            } else {
+                freeSet = new HashSet<>(freeIds);
+            }
+        }
+
+        if (freeSet == null) {
+            return toPage(fetch(where, params, sort, criteria.getCursor(), limit + 1), limit, sort);
+        }
+        return scanAvailable(where, params, sort, criteria.getCursor(), limit, freeSet);
+    }
+
+    // Đọc từng khúc theo keyset, giữ các dòng thuộc tập rảnh cho tới khi đủ limit + 1.
+    // Chỉ dùng khi tập rảnh lớn, nên thường một hai khúc là đủ.
+    private CursorPage<GamePlayerCardDTO> scanAvailable(List<String> where, Map<String, Object> params, Sort sort,
+                                                        String cursor, int limit, Set<Long> freeSet) {
+        List<GamePlayerCardDTO> matched = new ArrayList<>();
+        while (true) {
+            List<GamePlayerCardDTO> chunk = fetch(where, params, sort, cursor, SCAN_CHUNK);
+            for (GamePlayerCardDTO card : chunk) {
+                if (freeSet.contains(card.getId())) {
+                    matched.add(card);
+                    if (matched.size() > limit) {
+                        return toPage(matched, limit, sort);
+                    }
+                }
+            }
+            if (chunk.size() < SCAN_CHUNK) {
+                return toPage(matched, limit, sort);
+            }
+            cursor = cursorOf(chunk.get(chunk.size() - 1), sort);
+        }
+    }
+
+    private List<GamePlayerCardDTO> fetch(List<String> baseWhere, Map<String, Object> baseParams, Sort sort,
+                                          String cursor, int maxResults) {
+        List<String> where = new ArrayList<>(baseWhere);
+        Map<String, Object> params = new HashMap<>(baseParams);
+        addKeyset(where, params, sort, cursor);
+
+        StringBuilder jpql = new StringBuilder(GamePlayerRepository.CARD_SELECT);
+        if (!where.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        jpql.append(orderBy(sort));
+
+        TypedQuery<GamePlayerCardDTO> query = entityManager.createQuery(jpql.toString(), GamePlayerCardDTO.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
+    private void addKeyset(List<String> where, Map<String, Object> params, Sort sort, String cursor) {
+        if (cursor == null || cursor.isBlank()) return;
+        int sep = cursor.lastIndexOf('_');
+        String key = sep < 0 ? null : cursor.substring(0, sep);
+        Long id;
+        try {
+            id = Long.parseLong(cursor.substring(sep + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        params.put("cursorId", id);
+
+        try {
+            switch (sort) {
+                case PRICE_ASC:
+                    where.add("(g.pricePerHour > :cursorKey OR (g.pricePerHour = :cursorKey AND g.id > :cursorId))");
+                    params.put("cursorKey", new BigDecimal(key));
+                    break;
+                case PRICE_DESC:
+                    where.add("(g.pricePerHour < :cursorKey OR (g.pricePerHour = :cursorKey AND g.id < :cursorId))");
+                    params.put("cursorKey", new BigDecimal(key));
+                    break;
+                case RATING_DESC:
+                    // NULL đứng cuối khi sắp giảm dần
+                    if ("null".equals(key)) {
+                        where.add("(g.rating IS NULL AND g.id < :cursorId)");
+                    } else {
+                        where.add("(g.rating < :cursorKey OR (g.rating = :cursorKey AND g.id < :cursorId) " +
+                                  "OR g.rating IS NULL)");
+                        params.put("cursorKey", Double.valueOf(key));
+                    }
+                    break;
+                default:
+                    where.add("g.id < :cursorId");
+            }
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private String orderBy(Sort sort) {
+        switch (sort) {
+            case PRICE_ASC:
+                return " ORDER BY g.pricePerHour ASC, g.id ASC";
+            case PRICE_DESC:
+                return " ORDER BY g.pricePerHour DESC, g.id DESC";
+            case RATING_DESC:
+                return " ORDER BY g.rating DESC, g.id DESC";
+            default:
+                return " ORDER BY g.id DESC";
+        }
+    }
+
+    // Lấy thừa một dòng để biết còn trang sau hay không
+    private CursorPage<GamePlayerCardDTO> toPage(List<GamePlayerCardDTO> rows, int limit, Sort sort) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<GamePlayerCardDTO> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorOf(items.get(limit - 1), sort));
+    }
+
+    private static String cursorOf(GamePlayerCardDTO last, Sort sort) {
+        String key;
+        switch (sort) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+                key = last.getPricePerHour().toPlainString() + "_";
+                break;
+            case RATING_DESC:
+                key = last.getRating() + "_";
+                break;
+            default:
+                key = "";
+        }
+        return key + last.getId();
+    }
+
+    private static void addEquals(List<String> where, Map<String, Object> params,
+                                  String path, String name, Object value) {
+        if (value != null) {
+            where.add(path + " = :" + name);
+            params.put(name, value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.RATING_DESC;
+        }
+        try {
+            return Sort.valueOf(sort.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sort: " + sort);
+        }
+    }
+
+    private static int pageSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
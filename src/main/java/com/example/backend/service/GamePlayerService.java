@@ -1,12 +1,17 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.GamePlayerCardDTO;
 import com.example.backend.entity.GamePlayer;
 import com.example.backend.entity.Game;
 import com.example.backend.entity.User;
+import com.example.backend.event.GamePlayerChangedEvent;
 import com.example.backend.repository.GamePlayerRepository;
 import com.example.backend.repository.GameRepository;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.exception.ResourceNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
@@ -16,16 +21,25 @@ import java.util.List;
 @Service
 @Transactional
 public class GamePlayerService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
     private final GamePlayerRepository gamePlayerRepository;
     private final GameRepository gameRepository;
     private final UserRepository userRepository;
+    private final GameCatalogService gameCatalogService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public GamePlayerService(GamePlayerRepository gamePlayerRepository,
                            GameRepository gameRepository,
-                           UserRepository userRepository) {
+                           UserRepository userRepository,
+                           GameCatalogService gameCatalogService,
+                           ApplicationEventPublisher eventPublisher) {
         this.gamePlayerRepository = gamePlayerRepository;
         this.gameRepository = gameRepository;
         this.userRepository = userRepository;
+        this.gameCatalogService = gameCatalogService;
+        this.eventPublisher = eventPublisher;
     }
 
     public GamePlayer createGamePlayer(Long userId, Long gameId, String username,
@@ -34,8 +48,8 @@ public class GamePlayerService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new ResourceNotFoundException("Game not found"));
+        // Kiểm tra tồn tại trên danh mục trong bộ nhớ, chỉ cần tham chiếu để gán khóa ngoại
+        Game game = gameRepository.getReferenceById(gameCatalogService.getById(gameId).getId());
 
         GamePlayer gamePlayer = new GamePlayer();
         gamePlayer.setUser(user);
@@ -76,32 +90,48 @@ public class GamePlayerService {
         gamePlayerRepository.delete(gamePlayer);
     }
 
-    public List<GamePlayer> getGamePlayersByGame(Long gameId) {
-        return gamePlayerRepository.findByGameId(gameId);
+    @Transactional(readOnly = true)
+    public CursorPage<GamePlayerCardDTO> getCardsByGame(Long gameId, String cursor, Integer size) {
+        return cardPage(gameId, null, null, null, null, null, cursor, size);
     }
 
-    public List<GamePlayer> getGamePlayersByUser(Long userId) {
-        return gamePlayerRepository.findByUserId(userId);
+    @Transactional(readOnly = true)
+    public CursorPage<GamePlayerCardDTO> getCardsByUser(Long userId, String cursor, Integer size) {
+        return cardPage(null, userId, null, null, null, null, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<GamePlayerCardDTO> getCardsByStatus(String status, String cursor, Integer size) {
+        return cardPage(null, null, status, null, null, null, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<GamePlayerCardDTO> getCardsByRank(String rank, String cursor, Integer size) {
+        return cardPage(null, null, null, rank, null, null, cursor, size);
     }
 
-    public List<GamePlayer> getGamePlayersByStatus(String status) {
-        return gamePlayerRepository.findByStatus(status);
+    @Transactional(readOnly = true)
+    public CursorPage<GamePlayerCardDTO> getCardsByRole(String role, String cursor, Integer size) {
+        return cardPage(null, null, null, null, role, null, cursor, size);
     }
 
-    public List<GamePlayer> getGamePlayersByRank(String rank) {
-        return gamePlayerRepository.findByRank(rank);
+    @Transactional(readOnly = true)
+    public CursorPage<GamePlayerCardDTO> getCardsByServer(String server, String cursor, Integer size) {
+        return cardPage(null, null, null, null, null, server, cursor, size);
     }
 
-    public List<GamePlayer> getGamePlayersByRole(String role) {
-        return gamePlayerRepository.findByRole(role);
+    @Transactional(readOnly = true)
+    public CursorPage<GamePlayerCardDTO> getAvailableCards(String cursor, Integer size) {
+        return cardPage(null, null, "AVAILABLE", null, null, null, cursor, size);
     }
 
-    public List<GamePlayer> getGamePlayersByServer(String server) {
-        return gamePlayerRepository.findByServer(server);
+    @Transactional(readOnly = true)
+    public CursorPage<GamePlayerCardDTO> getAllCards(String cursor, Integer size) {
+        return cardPage(null, null, null, null, null, null, cursor, size);
     }
 
-    public List<GamePlayer> getAvailableGamePlayers() {
-        return gamePlayerRepository.findByStatus("AVAILABLE");
+    public List<GamePlayer> getGamePlayersByUser(Long userId) {
+        return gamePlayerRepository.findByUserId(userId);
     }
 
     public GamePlayer hireGamePlayer(Long id, Long userId, Integer hours) {
@@ -139,12 +169,14 @@ public class GamePlayerService {
         return gamePlayerRepository.save(gamePlayer);
     }
 
+    // Cột rating không ghi qua save (updatable = false) nên dùng UPDATE riêng, rồi tự phát sự kiện thay entity listener
     public GamePlayer updateRating(Long id, Double rating) {
-        GamePlayer gamePlayer = gamePlayerRepository.findById(id)
+        if (gamePlayerRepository.setRating(id, rating) == 0) {
+            throw new ResourceNotFoundException("Game player not found");
+        }
+        eventPublisher.publishEvent(new GamePlayerChangedEvent(id, false));
+        return gamePlayerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Game player not found"));
-
-        gamePlayer.setRating(rating);
-        return gamePlayerRepository.save(gamePlayer);
     }
 
     public GamePlayer updateStats(Long id, Integer totalGames, Integer winRate) {
@@ -156,23 +188,11 @@ public class GamePlayerService {
         return gamePlayerRepository.save(gamePlayer);
     }
 
-    public List<GamePlayer> getAllGamePlayers() {
-        return gamePlayerRepository.findAll();
-    }
-
     public GamePlayer findById(Long id) {
         return gamePlayerRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Game player not found with id: " + id));
     }
 
-    public List<GamePlayer> findAll() {
-        return gamePlayerRepository.findAll();
-    }
-
-    public List<GamePlayer> findByStatus(String status) {
-        return gamePlayerRepository.findByStatus(status);
-    }
-
     public List<GamePlayer> findByGameId(Long gameId) {
         return gamePlayerRepository.findByGameId(gameId);
     }
@@ -211,4 +231,28 @@ public class GamePlayerService {
         gamePlayer.setReturnDate(null);
         return gamePlayerRepository.save(gamePlayer);
     }
-} 
\ No newline at end of file
+
+    // Lấy thừa một dòng để biết còn trang sau hay không; cursor là id của card cuối trang trước
+    private CursorPage<GamePlayerCardDTO> cardPage(Long gameId, Long userId, String status, String rank,
+                                                   String role, String server, String cursor, Integer size) {
+        int limit = size == null || size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        List<GamePlayerCardDTO> rows = gamePlayerRepository.findCardPage(gameId, userId, status, rank, role, server,
+                cursorId(cursor), PageRequest.of(0, limit + 1));
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<GamePlayerCardDTO> items = rows.subList(0, limit);
+        return new CursorPage<>(items, String.valueOf(items.get(limit - 1).getId()));
+    }
+
+    private Long cursorId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
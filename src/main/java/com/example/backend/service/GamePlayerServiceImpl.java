@@ -2,8 +2,10 @@ package com.example.backend.service;
 
 import com.example.backend.entity.GamePlayer;
 import com.example.backend.entity.User;
+import com.example.backend.event.GamePlayerChangedEvent;
 import com.example.backend.repository.GamePlayerRepository;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
@@ -16,9 +18,12 @@ import java.util.List;
 public class GamePlayerServiceImpl {
 
     private final GamePlayerRepository gamePlayerRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public GamePlayerServiceImpl(GamePlayerRepository gamePlayerRepository) {
+    public GamePlayerServiceImpl(GamePlayerRepository gamePlayerRepository,
+                                 ApplicationEventPublisher eventPublisher) {
         this.gamePlayerRepository = gamePlayerRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<GamePlayer> findAll() {
@@ -160,12 +165,10 @@ public class GamePlayerServiceImpl {
         }
 
         GamePlayer gamePlayer = findById(id);
-        if (gamePlayer.getRating() == null) {
-            gamePlayer.setRating(rating);
-        } else {
-            gamePlayer.setRating((gamePlayer.getRating() + rating) / 2);
-        }
-
-        return gamePlayerRepository.save(gamePlayer);
+        Double newRating = gamePlayer.getRating() == null ? rating : (gamePlayer.getRating() + rating) / 2;
+        // rating không ghi qua save (updatable = false)
+        gamePlayerRepository.setRating(id, newRating);
+        eventPublisher.publishEvent(new GamePlayerChangedEvent(id, false));
+        return findById(id);
     }
 }
@@ -0,0 +1,368 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.GamePlayerCardDTO;
+import com.example.backend.dto.TextSearchResultDTO;
+import com.example.backend.event.GamePlayerChangedEvent;
+import com.example.backend.repository.GamePlayerRepository;
+import com.example.backend.util.RebuildCoordinator;
+import com.example.backend.util.TextNormalizer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Chỉ mục ngược trong bộ nhớ cho username + description của GamePlayer, xếp hạng BM25.
+// Term gồm từ đã bỏ dấu và trigram của từ (tiền tố '#') để khớp một phần; username được tính trọng số gấp đôi.
+// Snapshot ghi xuống đĩa kèm CRC32 nội dung: khi khởi động chỉ tokenize lại các bản ghi đã đổi.
+@Service
+public class GamePlayerTextSearchService {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double TRIGRAM_WEIGHT = 0.3;
+    private static final int USERNAME_BOOST = 2;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int FETCH_CHUNK = 500;
+
+    private final GamePlayerRepository gamePlayerRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildCoordinator<Long> coordinator = new RebuildCoordinator<>();
+    private Map<Long, Doc> docs = new HashMap<>();
+    private Map<String, Map<Long, Integer>> postings = new HashMap<>(); // term -> docId -> tf
+    private long totalLength;
+    private volatile boolean dirty;
+
+    @Value("${search.text.snapshot-path:./data/game-player-text.idx}")
+    private String snapshotPath;
+
+    @Value("${search.text.max-page-size:50}")
+    private int maxPageSize;
+
+    public GamePlayerTextSearchService(GamePlayerRepository gamePlayerRepository) {
+        this.gamePlayerRepository = gamePlayerRepository;
+    }
+
+    public TextSearchResultDTO search(String query, int offset, int limit) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        List<String> words = TextNormalizer.words(query);
+        if (words.isEmpty()) {
+            return new TextSearchResultDTO(0, List.of());
+        }
+        Set<String> wordTerms = new HashSet<>(words);
+        Set<String> gramTerms = new HashSet<>();
+        for (String word : words) {
+            for (String gram : TextNormalizer.trigrams(word)) {
+                gramTerms.add("#" + gram);
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked;
+        lock.readLock().lock();
+        try {
+            int n = docs.size();
+            if (n == 0) {
+                return new TextSearchResultDTO(0, List.of());
+            }
+            double avgLength = (double) totalLength / n;
+            Map<Long, Double> scores = new HashMap<>();
+            Set<Long> wordHits = new HashSet<>();
+            Map<Long, Integer> gramHits = new HashMap<>();
+            for (String term : wordTerms) {
+                accumulate(term, 1.0, n, avgLength, scores);
+                wordHits.addAll(postings.getOrDefault(term, Map.of()).keySet());
+            }
+            for (String term : gramTerms) {
+                accumulate(term, TRIGRAM_WEIGHT, n, avgLength, scores);
+                postings.getOrDefault(term, Map.of()).keySet().forEach(id -> gramHits.merge(id, 1, Integer::sum));
+            }
+            // Chỉ giữ bản ghi khớp nguyên từ, hoặc khớp ít nhất một nửa số trigram của truy vấn
+            ranked = scores.entrySet().stream()
+                    .filter(e -> wordHits.contains(e.getKey())
+                            || gramHits.getOrDefault(e.getKey(), 0) * 2 >= gramTerms.size())
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int from = Math.min(Math.max(0, offset), ranked.size());
+        int to = Math.min(from + size, ranked.size());
+        List<Long> pageIds = ranked.subList(from, to).stream().map(Map.Entry::getKey).collect(Collectors.toList());
+        Map<Long, GamePlayerCardDTO> cards = pageIds.isEmpty() ? Map.of()
+                : gamePlayerRepository.findCardsByIds(pageIds).stream()
+                        .collect(Collectors.toMap(GamePlayerCardDTO::getId, Function.identity()));
+        List<GamePlayerCardDTO> items = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            GamePlayerCardDTO card = cards.get(id);
+            if (card != null) items.add(card);
+        }
+        return new TextSearchResultDTO(ranked.size(), items);
+    }
+
+    private void accumulate(String term, double weight, int n, double avgLength, Map<Long, Double> scores) {
+        Map<Long, Integer> posting = postings.get(term);
+        if (posting == null) return;
+        double df = posting.size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        posting.forEach((id, tf) -> {
+            double norm = K1 * (1 - B + B * docs.get(id).length / avgLength);
+            scores.merge(id, weight * idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        coordinator.rebuild(this::load, this::install, id -> refresh(id, false));
+    }
+
+    private Loaded load() {
+        Map<Long, Doc> loaded = readSnapshot();
+        Map<Long, Doc> fresh = new HashMap<>();
+        List<Long> stale = new ArrayList<>();
+        if (loaded.isEmpty()) {
+            for (Object[] row : gamePlayerRepository.findAllSearchText()) {
+                fresh.put((Long) row[0], buildDoc((String) row[1], (String) row[2]));
+            }
+        } else {
+            for (Object[] row : gamePlayerRepository.findSearchTextFingerprints()) {
+                Long id = ((Number) row[0]).longValue();
+                Doc doc = loaded.get(id);
+                if (doc != null && doc.crc == ((Number) row[1]).longValue()) {
+                    fresh.put(id, doc);
+                } else {
+                    stale.add(id);
+                }
+            }
+            for (int i = 0; i < stale.size(); i += FETCH_CHUNK) {
+                List<Long> chunk = stale.subList(i, Math.min(i + FETCH_CHUNK, stale.size()));
+                for (Object[] row : gamePlayerRepository.findSearchTextByIds(chunk)) {
+                    fresh.put((Long) row[0], buildDoc((String) row[1], (String) row[2]));
+                }
+            }
+        }
+
+        Map<String, Map<Long, Integer>> freshPostings = new HashMap<>();
+        long length = 0;
+        for (Map.Entry<Long, Doc> e : fresh.entrySet()) {
+            addPostings(freshPostings, e.getKey(), e.getValue());
+            length += e.getValue().length;
+        }
+        return new Loaded(fresh, freshPostings, length,
+                loaded.isEmpty() || !stale.isEmpty() || loaded.size() != fresh.size());
+    }
+
+    private void install(Loaded loaded) {
+        lock.writeLock().lock();
+        try {
+            docs = loaded.docs;
+            postings = loaded.postings;
+            totalLength = loaded.totalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dirty = loaded.changed;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGamePlayerChanged(GamePlayerChangedEvent event) {
+        Long id = event.getGamePlayerId();
+        coordinator.update(id, () -> refresh(id, event.isDeleted()));
+    }
+
+    // Đọc văn bản mới nhất đã commit; gọi qua coordinator nên không chạy song song cho cùng id
+    private void refresh(Long id, boolean deleted) {
+        Doc doc = null;
+        if (!deleted) {
+            List<Object[]> rows = gamePlayerRepository.findSearchTextByIds(List.of(id));
+            if (!rows.isEmpty()) {
+                doc = buildDoc((String) rows.get(0)[1], (String) rows.get(0)[2]);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            Doc old = docs.get(id);
+            if (old != null && doc != null && old.crc == doc.crc) {
+                return; // chỉ đổi giá/trạng thái/rating, văn bản không đổi
+            }
+            if (old != null) {
+                removePostings(id, old);
+                docs.remove(id);
+                totalLength -= old.length;
+            }
+            if (doc != null) {
+                addPostings(postings, id, doc);
+                docs.put(id, doc);
+                totalLength += doc.length;
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.text.snapshot-interval-ms:600000}")
+    @PreDestroy
+    public void writeSnapshot() {
+        if (!dirty) return;
+        Map<Long, Doc> copy;
+        lock.readLock().lock();
+        try {
+            copy = new HashMap<>(docs);
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path file = Paths.get(snapshotPath);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(copy.size());
+                for (Map.Entry<Long, Doc> e : copy.entrySet()) {
+                    Doc doc = e.getValue();
+                    out.writeLong(e.getKey());
+                    out.writeLong(doc.crc);
+                    out.writeInt(doc.length);
+                    out.writeInt(doc.termFreqs.size());
+                    for (Map.Entry<String, Integer> tf : doc.termFreqs.entrySet()) {
+                        out.writeUTF(tf.getKey());
+                        out.writeInt(tf.getValue());
+                    }
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Snapshot hỏng hoặc khác phiên bản thì bỏ qua, dựng lại từ CSDL
+    private Map<Long, Doc> readSnapshot() {
+        Path file = Paths.get(snapshotPath);
+        if (!Files.isRegularFile(file)) {
+            return Map.of();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                return Map.of();
+            }
+            int count = in.readInt();
+            Map<Long, Doc> loaded = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long crc = in.readLong();
+                int length = in.readInt();
+                int terms = in.readInt();
+                Map<String, Integer> termFreqs = new HashMap<>(terms * 2);
+                for (int t = 0; t < terms; t++) {
+                    termFreqs.put(in.readUTF(), in.readInt());
+                }
+                loaded.put(id, new Doc(crc, length, termFreqs));
+            }
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            return Map.of();
+        }
+    }
+
+    private Doc buildDoc(String username, String description) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        int length = addTerms(termFreqs, username, USERNAME_BOOST) + addTerms(termFreqs, description, 1);
+        return new Doc(fingerprint(username, description), length, Collections.unmodifiableMap(termFreqs));
+    }
+
+    private int addTerms(Map<String, Integer> termFreqs, String text, int weight) {
+        List<String> words = TextNormalizer.words(text);
+        for (String word : words) {
+            termFreqs.merge(word, weight, Integer::sum);
+            for (String gram : TextNormalizer.trigrams(word)) {
+                termFreqs.merge("#" + gram, weight, Integer::sum);
+            }
+        }
+        return words.size() * weight;
+    }
+
+    // Phải trùng với CRC32(CONCAT(username, '\n', COALESCE(description, ''))) ở findSearchTextFingerprints
+    private static long fingerprint(String username, String description) {
+        CRC32 crc = new CRC32();
+        String text = (username == null ? "" : username) + "\n" + (description == null ? "" : description);
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static void addPostings(Map<String, Map<Long, Integer>> target, Long id, Doc doc) {
+        doc.termFreqs.forEach((term, tf) -> target.computeIfAbsent(term, k -> new HashMap<>()).put(id, tf));
+    }
+
+    private void removePostings(Long id, Doc doc) {
+        for (String term : doc.termFreqs.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting == null) continue;
+            posting.remove(id);
+            if (posting.isEmpty()) postings.remove(term);
+        }
+    }
+
+    private static final class Doc {
+        final long crc;
+        final int length;
+        final Map<String, Integer> termFreqs;
+
+        Doc(long crc, int length, Map<String, Integer> termFreqs) {
+            this.crc = crc;
+            this.length = length;
+            this.termFreqs = termFreqs;
+        }
+    }
+
+    // Kết quả đọc toàn bộ, chưa gắn vào service
+    private static final class Loaded {
+        final Map<Long, Doc> docs;
+        final Map<String, Map<Long, Integer>> postings;
+        final long totalLength;
+        final boolean changed; // khác snapshot trên đĩa, cần ghi lại
+
+        Loaded(Map<Long, Doc> docs, Map<String, Map<Long, Integer>> postings, long totalLength, boolean changed) {
+            this.docs = docs;
+            this.postings = postings;
+            this.totalLength = totalLength;
+            this.changed = changed;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.GatewayCallbackRequest;
+import com.example.backend.dto.PendingDeposit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Callback từ MOMO/VNPAY/ZALOPAY: request thread chỉ kiểm tra chữ ký rồi đưa vào hàng đợi,
+// các worker gom theo lô và cộng tiền qua DepositService (idempotent theo trạng thái PENDING).
+@Slf4j
+@Service
+public class GatewayCallbackService {
+    private static final Set<String> PROVIDERS = Set.of("MOMO", "VNPAY", "ZALOPAY");
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DepositService depositService;
+    private final Environment environment;
+    private final BlockingQueue<QueuedCallback> queue;
+    private final Map<String, String> secrets = new HashMap<>();
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong credited = new AtomicLong();
+    private final AtomicLong ignored = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Value("${payment.gateway.workers:4}")
+    private int workerCount;
+
+    @Value("${payment.gateway.batch-size:200}")
+    private int batchSize;
+
+    public GatewayCallbackService(DepositService depositService,
+                                  Environment environment,
+                                  @Value("${payment.gateway.queue-capacity:10000}") int queueCapacity) {
+        this.depositService = depositService;
+        this.environment = environment;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        // Mỗi provider tự lấy secret: thiếu secret thì chỉ tắt provider đó (callback trả 503), app vẫn khởi động
+        for (String provider : PROVIDERS) {
+            String secret = environment.getProperty("payment.gateway." + provider.toLowerCase() + ".secret", "");
+            if (secret.isBlank()) {
+                log.warn("Missing callback secret for provider {}, its callbacks will be rejected", provider);
+            } else {
+                secrets.put(provider, secret);
+            }
+        }
+        running = true;
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "gateway-callback-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::workLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public boolean isSupported(String provider) {
+        return PROVIDERS.contains(provider.toUpperCase());
+    }
+
+    public boolean isEnabled(String provider) {
+        return secrets.containsKey(provider.toUpperCase());
+    }
+
+    public boolean verifySignature(String provider, GatewayCallbackRequest request) {
+        String expected = sign(provider, request);
+        return MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8),
+                request.getSignature().toLowerCase().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Chữ ký: HMAC-SHA256(secret của provider, "transactionId|userId|amount|status")
+    public String sign(String provider, GatewayCallbackRequest request) {
+        String secret = secrets.get(provider.toUpperCase());
+        if (secret == null) {
+            throw new IllegalStateException("Missing secret for provider " + provider);
+        }
+        String payload = request.getTransactionId() + "|" + request.getUserId() + "|"
+                + request.getAmount().toPlainString() + "|" + request.getStatus();
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot compute callback signature", e);
+        }
+    }
+
+    // Trả về false khi hàng đợi đầy để controller báo 503, gateway sẽ gửi lại
+    public boolean enqueue(String provider, GatewayCallbackRequest request) {
+        boolean offered = queue.offer(new QueuedCallback(provider.toUpperCase(), request, 1));
+        if (offered) {
+            accepted.incrementAndGet();
+        } else {
+            rejected.incrementAndGet();
+        }
+        return offered;
+    }
+
+    public void countRejected() {
+        rejected.incrementAndGet();
+    }
+
+    private void workLoop() {
+        List<QueuedCallback> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                retry(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void processBatch(List<QueuedCallback> batch) {
+        Set<String> transactionIds = new HashSet<>();
+        for (QueuedCallback callback : batch) {
+            if ("SUCCESS".equalsIgnoreCase(callback.request.getStatus())) {
+                transactionIds.add(callback.request.getTransactionId());
+            } else {
+                ignored.incrementAndGet();
+            }
+        }
+        if (transactionIds.isEmpty()) {
+            return;
+        }
+
+        Map<String, PendingDeposit> pending = new HashMap<>();
+        for (PendingDeposit deposit : depositService.findPendingDeposits(transactionIds)) {
+            pending.put(deposit.getUserId() + ":" + deposit.getTransactionId(), deposit);
+        }
+
+        List<PendingDeposit> matched = new ArrayList<>();
+        for (QueuedCallback callback : batch) {
+            GatewayCallbackRequest request = callback.request;
+            if (!"SUCCESS".equalsIgnoreCase(request.getStatus())) {
+                continue;
+            }
+            String key = request.getUserId() + ":" + request.getTransactionId();
+            PendingDeposit deposit = pending.get(key);
+            // Callback của gateway này không được cộng tiền cho intent tạo với phương thức khác
+            if (deposit == null
+                    || !callback.provider.equals(deposit.getPaymentMethod())
+                    || deposit.getAmount().compareTo(request.getAmount()) != 0) {
+                ignored.incrementAndGet();
+            } else {
+                // remove(): callback lặp lại trong cùng lô chỉ được tính một lần
+                pending.remove(key);
+                matched.add(deposit);
+            }
+        }
+        if (!matched.isEmpty()) {
+            int count = depositService.creditDeposits(matched).size();
+            credited.addAndGet(count);
+            ignored.addAndGet(matched.size() - count);
+        }
+    }
+
+    private void retry(List<QueuedCallback> batch) {
+        for (QueuedCallback callback : batch) {
+            if (callback.attempt >= MAX_ATTEMPTS
+                    || !queue.offer(new QueuedCallback(callback.provider, callback.request, callback.attempt + 1))) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("queued", queue.size());
+        status.put("remainingCapacity", queue.remainingCapacity());
+        status.put("accepted", accepted.get());
+        status.put("rejected", rejected.get());
+        status.put("credited", credited.get());
+        status.put("ignored", ignored.get());
+        status.put("failed", failed.get());
+        return status;
+    }
+
+    private static class QueuedCallback {
+        final String provider;
+        final GatewayCallbackRequest request;
+        final int attempt;
+
+        QueuedCallback(String provider, GatewayCallbackRequest request, int attempt) {
+            this.provider = provider;
+            this.request = request;
+            this.attempt = attempt;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ExpiredHire;
+import com.example.backend.event.GamePlayerReleasedEvent;
+import com.example.backend.event.HireCompletedEvent;
+import com.example.backend.repository.GamePlayerRepository;
+import com.example.backend.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Quét định kỳ: chuyển hợp đồng thuê hết hạn ACTIVE -> COMPLETED và trả GamePlayer quá returnDate về AVAILABLE.
+// Mỗi chunk là một transaction riêng với UPDATE theo tập id, nên không giữ lock lâu khi tồn đọng nhiều.
+@Service
+public class HireLifecycleService {
+    private final PaymentRepository paymentRepository;
+    private final GamePlayerRepository gamePlayerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${hire.sweeper.batch-size:500}")
+    private int batchSize;
+
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunMillis;
+    private volatile int lastCompletedHires;
+    private volatile int lastReleasedGamePlayers;
+    private volatile long hireLagSeconds;
+    private volatile long gamePlayerLagDays;
+
+    public HireLifecycleService(PaymentRepository paymentRepository,
+                                GamePlayerRepository gamePlayerRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager) {
+        this.paymentRepository = paymentRepository;
+        this.gamePlayerRepository = gamePlayerRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${hire.sweeper.interval-ms:60000}",
+               initialDelayString = "${hire.sweeper.initial-delay-ms:30000}")
+    public void sweep() {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        lastCompletedHires = completeExpiredHires(now);
+        lastReleasedGamePlayers = releaseExpiredGamePlayers(now.toLocalDate());
+        lastRunAt = now;
+        lastRunMillis = System.currentTimeMillis() - started;
+    }
+
+    public int completeExpiredHires(LocalDateTime startedAt) {
+        // Cắt về giây để completedAt ghi xuống khớp chính xác khi đọc lại, bất kể độ chính xác của cột
+        LocalDateTime now = startedAt.truncatedTo(ChronoUnit.SECONDS);
+        // Độ trễ = hợp đồng quá hạn lâu nhất chưa được xử lý tại thời điểm quét
+        LocalDateTime oldest = paymentRepository.findOldestExpiredHireEndTime(now);
+        hireLagSeconds = oldest != null ? Duration.between(oldest, now).getSeconds() : 0;
+
+        int total = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> completeHireChunk(now));
+            total += chunk;
+        } while (chunk > 0);
+        return total;
+    }
+
+    public int releaseExpiredGamePlayers(LocalDate today) {
+        LocalDate oldest = gamePlayerRepository.findOldestExpiredReturnDate(today);
+        gamePlayerLagDays = oldest != null ? ChronoUnit.DAYS.between(oldest, today) : 0;
+
+        int total = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> releaseGamePlayerChunk(today));
+            total += chunk;
+        } while (chunk > 0);
+        return total;
+    }
+
+    // Trả về số dòng thực sự được cập nhật
+    private int completeHireChunk(LocalDateTime now) {
+        List<ExpiredHire> expired = new ArrayList<>(
+                paymentRepository.findExpiredHires(now, PageRequest.of(0, batchSize)));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = expired.stream().map(ExpiredHire::getPaymentId).collect(Collectors.toList());
+        int updated = paymentRepository.completeHires(ids, now);
+        if (updated < ids.size()) {
+            // Một số hợp đồng vừa bị hủy/gia hạn song song, chỉ phát sự kiện cho các dòng thực sự được cập nhật
+            Set<Long> completed = new HashSet<>(paymentRepository.findHireIdsCompletedAt(ids, now));
+            expired.removeIf(e -> !completed.contains(e.getPaymentId()));
+        }
+        // Phát trong transaction để các bảng thống kê cập nhật cùng commit
+        for (ExpiredHire hire : expired) {
+            eventPublisher.publishEvent(new HireCompletedEvent(hire.getPaymentId(), hire.getPlayerId(),
+                    hire.getHirerId(), hire.getAmount(), hire.getStartTime(), hire.getEndTime(), hire.getCreatedAt()));
+        }
+        return updated;
+    }
+
+    private int releaseGamePlayerChunk(LocalDate today) {
+        List<Long> ids = gamePlayerRepository.findExpiredHiredIds(today, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = gamePlayerRepository.releaseHired(ids, today);
+        List<Long> released = ids;
+        if (updated < ids.size()) {
+            // Hồ sơ vừa được gia hạn vẫn HIRED nên bị loại khi đọc lại
+            released = gamePlayerRepository.findAvailableIdsIn(ids);
+        }
+        released.forEach(id -> eventPublisher.publishEvent(new GamePlayerReleasedEvent(id)));
+        return updated;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("lastRunAt", lastRunAt);
+        status.put("lastRunMillis", lastRunMillis);
+        status.put("lastCompletedHires", lastCompletedHires);
+        status.put("lastReleasedGamePlayers", lastReleasedGamePlayers);
+        status.put("hireLagSeconds", hireLagSeconds);
+        status.put("gamePlayerLagDays", gamePlayerLagDays);
+        return status;
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.LeaderboardEntryDTO;
+import com.example.backend.event.HireCanceledEvent;
+import com.example.backend.event.HireCompletedEvent;
+import com.example.backend.event.HireCreatedEvent;
+import com.example.backend.event.PlayerFollowChangedEvent;
+import com.example.backend.event.PlayerReviewCreatedEvent;
+import com.example.backend.repository.GamePlayerRepository;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.PlayerFollowRepository;
+import com.example.backend.repository.PlayerReviewRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.util.IndexableSkipList;
+import com.example.backend.util.RebuildCoordinator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Bảng xếp hạng giữ trong bộ nhớ, mỗi bảng (tổng và theo game) là một skip list có span.
+// Event thuê/đánh giá/theo dõi sau commit đọc lại điểm của đúng player đó từ DB (không cộng dồn delta),
+// nên thứ tự event và việc dựng lại chạy song song không làm lệch điểm; dựng lại toàn bộ lúc khởi động và định kỳ.
+@Service
+public class LeaderboardService {
+    public enum Board {
+        EARNINGS, HIRE_HOURS, RATING, FOLLOWERS;
+
+        public static Board fromPath(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown leaderboard: " + value);
+            }
+        }
+    }
+
+    private final PaymentRepository paymentRepository;
+    private final PlayerReviewRepository playerReviewRepository;
+    private final PlayerFollowRepository playerFollowRepository;
+    private final GamePlayerRepository gamePlayerRepository;
+    private final UserRepository userRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildCoordinator<Long> coordinator = new RebuildCoordinator<>(); // key = users.id của player
+    private State state = new State();
+
+    @Value("${leaderboard.max-page-size:100}")
+    private int maxPageSize;
+
+    public LeaderboardService(PaymentRepository paymentRepository,
+                              PlayerReviewRepository playerReviewRepository,
+                              PlayerFollowRepository playerFollowRepository,
+                              GamePlayerRepository gamePlayerRepository,
+                              UserRepository userRepository) {
+        this.paymentRepository = paymentRepository;
+        this.playerReviewRepository = playerReviewRepository;
+        this.playerFollowRepository = playerFollowRepository;
+        this.gamePlayerRepository = gamePlayerRepository;
+        this.userRepository = userRepository;
+    }
+
+    public List<LeaderboardEntryDTO> getTop(Board board, Long gameId, int offset, int limit) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        List<IndexableSkipList.Entry> entries;
+        lock.readLock().lock();
+        try {
+            IndexableSkipList list = state.board(board, gameId);
+            entries = list == null ? List.of() : list.range(Math.max(0, offset), size);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Long, String> names = usernames(entries.stream().map(IndexableSkipList.Entry::getId).collect(Collectors.toSet()));
+        List<LeaderboardEntryDTO> result = new ArrayList<>(entries.size());
+        int rank = Math.max(0, offset);
+        for (IndexableSkipList.Entry e : entries) {
+            result.add(new LeaderboardEntryDTO(++rank, e.getId(), names.get(e.getId()), e.getScore()));
+        }
+        return result;
+    }
+
+    // null nếu player không có trong bảng
+    public LeaderboardEntryDTO getRank(Board board, Long gameId, Long playerId) {
+        int rank;
+        Double score;
+        lock.readLock().lock();
+        try {
+            IndexableSkipList list = state.board(board, gameId);
+            if (list == null) return null;
+            rank = list.rank(playerId);
+            score = list.score(playerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (rank == 0) return null;
+        return new LeaderboardEntryDTO(rank, playerId, usernames(Set.of(playerId)).get(playerId), score);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${leaderboard.rebuild-interval-ms:1800000}",
+               initialDelayString = "${leaderboard.rebuild-interval-ms:1800000}")
+    public void rebuild() {
+        coordinator.rebuild(this::load, fresh -> {
+            lock.writeLock().lock();
+            try {
+                state = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, this::refreshUser);
+    }
+
+    private State load() {
+        State fresh = new State();
+        for (Object[] row : gamePlayerRepository.findAllOwnership()) {
+            fresh.addGamePlayer((Long) row[0], (Long) row[1], (Long) row[2]);
+        }
+
+        Set<Long> members = new HashSet<>(fresh.userGamePlayers.keySet());
+        Map<Long, Double> earnings = new HashMap<>();
+        Map<Long, Double> hours = new HashMap<>();
+        for (Object[] row : paymentRepository.aggregateHireTotalsByPlayer()) {
+            Long userId = ((Number) row[0]).longValue();
+            earnings.put(userId, ((Number) row[1]).doubleValue());
+            hours.put(userId, ((Number) row[2]).doubleValue());
+            members.add(userId);
+        }
+        for (Object[] row : playerReviewRepository.aggregateRatingsByPlayer()) {
+            Long userId = (Long) row[0];
+            fresh.ratings.put(userId, new long[]{((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+            members.add(userId);
+        }
+
+        for (Long userId : members) {
+            fresh.setUserScore(Board.EARNINGS, userId, earnings.getOrDefault(userId, 0.0));
+            fresh.setUserScore(Board.HIRE_HOURS, userId, hours.getOrDefault(userId, 0.0));
+            long[] rating = fresh.ratings.get(userId);
+            fresh.setUserScore(Board.RATING, userId, rating == null ? 0.0 : (double) rating[1] / rating[0]);
+            fresh.setUserScore(Board.FOLLOWERS, userId, 0.0);
+        }
+        for (Object[] row : playerFollowRepository.countFollowersGroupByGamePlayer()) {
+            fresh.addFollowers((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return fresh;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHireCreated(HireCreatedEvent event) {
+        update(event.getPlayerId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHireCompleted(HireCompletedEvent event) {
+        update(event.getPlayerId());
+    }
+
+    // Lượt hủy không còn tính giờ thuê, cả khi dựng lại lẫn khi đọc lại theo player
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHireCanceled(HireCanceledEvent event) {
+        update(event.getPlayerId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReviewCreated(PlayerReviewCreatedEvent event) {
+        update(event.getPlayerId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFollowChanged(PlayerFollowChangedEvent event) {
+        List<Object[]> ownership = gamePlayerRepository.findOwnershipById(event.getGamePlayerId());
+        if (ownership.isEmpty()) return;
+        update((Long) ownership.get(0)[1]);
+    }
+
+    private void update(Long userId) {
+        if (userId == null) return;
+        coordinator.update(userId, () -> refreshUser(userId));
+    }
+
+    // Đọc điểm mới nhất đã commit của một player; gọi qua coordinator nên không chạy song song cho cùng player
+    private void refreshUser(Long userId) {
+        List<Object[]> owned = gamePlayerRepository.findOwnershipByUserId(userId);
+        List<Long> gamePlayerIds = owned.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        Map<Long, Long> followers = new HashMap<>();
+        if (!gamePlayerIds.isEmpty()) {
+            for (Object[] row : playerFollowRepository.countFollowersByGamePlayerIds(gamePlayerIds)) {
+                followers.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        Object[] hires = paymentRepository.aggregateHireTotalsForPlayer(userId).get(0);
+        Object[] rating = playerReviewRepository.aggregateRatingByPlayerId(userId).get(0);
+        long ratingCount = ((Number) rating[0]).longValue();
+        long ratingSum = ((Number) rating[1]).longValue();
+
+        withWriteLock(s -> {
+            for (Object[] row : owned) {
+                s.addGamePlayer((Long) row[0], userId, (Long) row[2]);
+            }
+            s.setUserScore(Board.EARNINGS, userId, ((Number) hires[0]).doubleValue());
+            s.setUserScore(Board.HIRE_HOURS, userId, ((Number) hires[1]).doubleValue());
+            s.setRating(userId, ratingCount, ratingSum);
+            s.setFollowers(userId, followers);
+        });
+    }
+
+    private void withWriteLock(Consumer<State> action) {
+        lock.writeLock().lock();
+        try {
+            action.accept(state);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, String> usernames(Set<Long> userIds) {
+        if (userIds.isEmpty()) return Map.of();
+        Map<Long, String> names = new HashMap<>();
+        for (Object[] row : userRepository.findUsernamesByIds(userIds)) {
+            names.put((Long) row[0], (String) row[1]);
+        }
+        return names;
+    }
+
+    private static final class State {
+        final Map<Board, IndexableSkipList> overall = new EnumMap<>(Board.class);
+        final Map<Board, Map<Long, IndexableSkipList>> perGame = new EnumMap<>(Board.class);
+        final Map<Long, long[]> gamePlayers = new HashMap<>();      // gamePlayerId -> {userId, gameId}
+        final Map<Long, List<Long>> userGamePlayers = new HashMap<>(); // userId -> gamePlayerIds
+        final Map<Long, long[]> ratings = new HashMap<>();          // userId -> {count, sum}
+        final Map<Long, Long> followers = new HashMap<>();          // gamePlayerId -> số người theo dõi
+
+        State() {
+            for (Board b : Board.values()) {
+                overall.put(b, new IndexableSkipList());
+                perGame.put(b, new HashMap<>());
+            }
+        }
+
+        IndexableSkipList board(Board board, Long gameId) {
+            return gameId == null ? overall.get(board) : perGame.get(board).get(gameId);
+        }
+
+        void addGamePlayer(long gamePlayerId, long userId, long gameId) {
+            if (gamePlayers.putIfAbsent(gamePlayerId, new long[]{userId, gameId}) != null) return;
+            userGamePlayers.computeIfAbsent(userId, k -> new ArrayList<>()).add(gamePlayerId);
+            // Đưa điểm hiện có của user vào bảng của game mới
+            for (Board b : Board.values()) {
+                Double score = overall.get(b).score(userId);
+                if (b == Board.FOLLOWERS) {
+                    gameBoard(b, gameId).put(userId, followersInGame(userId, gameId));
+                } else {
+                    gameBoard(b, gameId).put(userId, score == null ? 0.0 : score);
+                }
+            }
+        }
+
+        void setUserScore(Board board, long userId, double score) {
+            overall.get(board).put(userId, score);
+            for (Long gameId : gamesOf(userId)) {
+                gameBoard(board, gameId).put(userId, score);
+            }
+        }
+
+        void setRating(long userId, long count, long sum) {
+            if (count > 0) {
+                ratings.put(userId, new long[]{count, sum});
+            } else {
+                ratings.remove(userId);
+            }
+            setUserScore(Board.RATING, userId, count > 0 ? (double) sum / count : 0.0);
+        }
+
+        // Gán số follower của mọi game player thuộc user rồi tính lại bảng tổng và bảng theo game
+        void setFollowers(long userId, Map<Long, Long> counts) {
+            long total = 0;
+            for (Long gamePlayerId : userGamePlayers.getOrDefault(userId, List.of())) {
+                long count = counts.getOrDefault(gamePlayerId, 0L);
+                followers.put(gamePlayerId, count);
+                total += count;
+            }
+            overall.get(Board.FOLLOWERS).put(userId, total);
+            for (Long gameId : gamesOf(userId)) {
+                gameBoard(Board.FOLLOWERS, gameId).put(userId, followersInGame(userId, gameId));
+            }
+        }
+
+        void addFollowers(long gamePlayerId, long delta) {
+            long[] owner = gamePlayers.get(gamePlayerId);
+            if (owner == null) return;
+            followers.merge(gamePlayerId, delta, Long::sum);
+            long userId = owner[0];
+            long gameId = owner[1];
+            Double current = overall.get(Board.FOLLOWERS).score(userId);
+            overall.get(Board.FOLLOWERS).put(userId, (current == null ? 0.0 : current) + delta);
+            gameBoard(Board.FOLLOWERS, gameId).put(userId, followersInGame(userId, gameId));
+        }
+
+        private double followersInGame(long userId, long gameId) {
+            long total = 0;
+            for (Long gamePlayerId : userGamePlayers.getOrDefault(userId, List.of())) {
+                if (gamePlayers.get(gamePlayerId)[1] == gameId) {
+                    total += followers.getOrDefault(gamePlayerId, 0L);
+                }
+            }
+            return total;
+        }
+
+        private Set<Long> gamesOf(long userId) {
+            Set<Long> games = new HashSet<>();
+            for (Long gamePlayerId : userGamePlayers.getOrDefault(userId, List.of())) {
+                games.add(gamePlayers.get(gamePlayerId)[1]);
+            }
+            return games;
+        }
+
+        private IndexableSkipList gameBoard(Board board, long gameId) {
+            return perGame.get(board).computeIfAbsent(gameId, k -> new IndexableSkipList());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.PaymentExportRow;
+import com.example.backend.repository.PaymentRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class PaymentExportService {
+    private static final String HEADER = "id,created_at,type,status,payment_method,amount,currency," +
+            "user_id,username,player_id,transaction_id,hire_status,completed_at";
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PaymentRepository paymentRepository;
+
+    public PaymentExportService(PaymentRepository paymentRepository) {
+        this.paymentRepository = paymentRepository;
+    }
+
+    // Ghi CSV trực tiếp ra output stream, không giữ danh sách payment trong bộ nhớ.
+    // Không đóng stream: người gọi quyết định (ví dụ finish() của GZIPOutputStream).
+    @Transactional(readOnly = true)
+    public long exportCsv(LocalDateTime start, LocalDateTime end, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(HEADER);
+        writer.write('\n');
+
+        long rows = 0;
+        try (Stream<PaymentExportRow> stream = paymentRepository.streamForExport(start, end)) {
+            Iterator<PaymentExportRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writeRow(writer, iterator.next());
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void writeRow(Writer writer, PaymentExportRow row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writeValue(writer, row.getCreatedAt());
+        writer.write(',');
+        writeValue(writer, row.getType());
+        writer.write(',');
+        writeValue(writer, row.getStatus());
+        writer.write(',');
+        writeText(writer, row.getPaymentMethod());
+        writer.write(',');
+        writeValue(writer, row.getAmount() != null ? row.getAmount().toPlainString() : null);
+        writer.write(',');
+        writeValue(writer, row.getCurrency());
+        writer.write(',');
+        writeValue(writer, row.getUserId());
+        writer.write(',');
+        writeText(writer, row.getUsername());
+        writer.write(',');
+        writeValue(writer, row.getPlayerId());
+        writer.write(',');
+        writeText(writer, row.getTransactionId());
+        writer.write(',');
+        writeValue(writer, row.getHireStatus());
+        writer.write(',');
+        writeValue(writer, row.getCompletedAt());
+        writer.write('\n');
+    }
+
+    // Ô văn bản do người dùng/cổng thanh toán nhập: thêm ' trước ký tự mở đầu công thức
+    // để Excel/Sheets không thực thi nội dung như =HYPERLINK(...)
+    private void writeText(Writer writer, String value) throws IOException {
+        if (value != null && !value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        writeValue(writer, value);
+    }
+
+    private void writeValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean needsQuoting = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!needsQuoting) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
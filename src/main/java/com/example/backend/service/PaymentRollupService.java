@@ -0,0 +1,130 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.RevenueTotalDTO;
+import com.example.backend.repository.PaymentDailyRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Bảng payment_daily_rollup chỉ tính các payment COMPLETED, theo ngày tạo (created_at)
+@Service
+public class PaymentRollupService {
+    private static final String UPSERT_SQL =
+            "INSERT INTO payment_daily_rollup (rollup_day, type, payment_method, currency, tx_count, total_amount) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE tx_count = tx_count + VALUES(tx_count), " +
+            "total_amount = total_amount + VALUES(total_amount)";
+
+    private static final String REBUILD_DELETE_SQL =
+            "DELETE FROM payment_daily_rollup WHERE rollup_day >= ? AND rollup_day < ?";
+
+    private static final String REBUILD_INSERT_SQL =
+            "INSERT INTO payment_daily_rollup (rollup_day, type, payment_method, currency, tx_count, total_amount) " +
+            "SELECT DATE(p.created_at), p.type, p.payment_method, p.currency, COUNT(*), SUM(p.amount) " +
+            "FROM payments p " +
+            "WHERE p.status = 'COMPLETED' AND p.created_at >= ? AND p.created_at < ? " +
+            "GROUP BY DATE(p.created_at), p.type, p.payment_method, p.currency";
+
+    private static final String PENDING_AS_COMPLETED_SQL =
+            "INSERT INTO payment_daily_rollup (rollup_day, type, payment_method, currency, tx_count, total_amount) " +
+            "SELECT DATE(p.created_at), p.type, p.payment_method, p.currency, COUNT(*), SUM(p.amount) " +
+            "FROM payments p " +
+            "WHERE p.type = ? AND p.status = 'PENDING' AND p.created_at < ? " +
+            "GROUP BY DATE(p.created_at), p.type, p.payment_method, p.currency " +
+            "ON DUPLICATE KEY UPDATE tx_count = tx_count + VALUES(tx_count), " +
+            "total_amount = total_amount + VALUES(total_amount)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PaymentDailyRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${revenue.rollup.rebuild-parallelism:4}")
+    private int rebuildParallelism;
+
+    @Value("${revenue.rollup.rebuild-chunk-days:7}")
+    private int rebuildChunkDays;
+
+    public PaymentRollupService(JdbcTemplate jdbcTemplate,
+                                PaymentDailyRollupRepository rollupRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Cộng dồn vào dòng rollup; chạy trên connection của transaction hiện tại nên commit/rollback cùng payment
+    public void applyDelta(LocalDate day, String type, String paymentMethod, String currency,
+                           long countDelta, BigDecimal amountDelta) {
+        if (countDelta == 0 && amountDelta.signum() == 0) {
+            return;
+        }
+        jdbcTemplate.update(UPSERT_SQL, Date.valueOf(day), type, paymentMethod, currency, countDelta, amountDelta);
+    }
+
+    // Dùng trước một UPDATE hàng loạt PENDING -> COMPLETED, trong cùng transaction
+    public void addPendingAsCompleted(String type, LocalDateTime createdBefore) {
+        jdbcTemplate.update(PENDING_AS_COMPLETED_SQL, type, Timestamp.valueOf(createdBefore));
+    }
+
+    @Transactional(readOnly = true)
+    public List<RevenueTotalDTO> getTotals(LocalDate from, LocalDate to, String type) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date must be before to date");
+        }
+        return rollupRepository.sumByPeriod(from, to, type);
+    }
+
+    // Dựng lại rollup cho [from, to] từ bảng payments, chia thành các khoảng ngày chạy song song,
+    // mỗi khoảng là một transaction DELETE + INSERT ... SELECT
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date must be before to date");
+        }
+        int chunkDays = Math.max(1, rebuildChunkDays);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildParallelism));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(chunkDays)) {
+                LocalDate start = chunkStart;
+                LocalDate endExclusive = chunkStart.plusDays(chunkDays).isAfter(to.plusDays(1))
+                        ? to.plusDays(1)
+                        : chunkStart.plusDays(chunkDays);
+                futures.add(executor.submit(() -> rebuildChunk(start, endExclusive)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return futures.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup rebuild interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollup rebuild failed: " + e.getCause().getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void rebuildChunk(LocalDate start, LocalDate endExclusive) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(REBUILD_DELETE_SQL, Date.valueOf(start), Date.valueOf(endExclusive));
+            jdbcTemplate.update(REBUILD_INSERT_SQL,
+                    Timestamp.valueOf(start.atStartOfDay()), Timestamp.valueOf(endExclusive.atStartOfDay()));
+        });
+    }
+}
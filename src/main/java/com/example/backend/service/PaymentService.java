@@ -1,5 +1,7 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.PaymentSummaryDTO;
 import com.example.backend.entity.Payment;
 import com.example.backend.entity.GamePlayer;
 import com.example.backend.entity.User;
@@ -8,16 +10,22 @@ import com.example.backend.repository.GamePlayerRepository;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.exception.ResourceNotFoundException;
 import com.example.backend.exception.PaymentException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @Transactional
 public class PaymentService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final PaymentRepository paymentRepository;
     private final GamePlayerRepository gamePlayerRepository;
     private final UserRepository userRepository;
@@ -51,7 +59,7 @@ public class PaymentService {
         return paymentRepository.save(payment);
     }
 
-    public Payment processPayment(Long paymentId, String transactionId) {
+    public Payment processPayment(Long paymentId) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
 
@@ -59,7 +67,10 @@ public class PaymentService {
             throw new PaymentException("Payment is not in pending status");
         }
 
-        payment.setTransactionId(transactionId);
+        // Mã do server sinh, giữ nguyên mã đã có (ví dụ intent nạp tiền) để đối soát vẫn khớp
+        if (payment.getTransactionId() == null) {
+            payment.setTransactionId("TXN_" + UUID.randomUUID().toString().replace("-", "").toUpperCase());
+        }
         payment.setStatus("COMPLETED");
         payment.setCompletedAt(LocalDateTime.now());
 
@@ -84,6 +95,31 @@ public class PaymentService {
         return paymentRepository.findByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentSummaryDTO> getUserPaymentPage(Long userId, String cursor, Integer size) {
+        int limit = pageSize(size);
+        LocalDateTime cursorCreatedAt = cursorCreatedAt(cursor);
+        List<PaymentSummaryDTO> rows = paymentRepository.findSummariesByUser(
+                userId, cursorCreatedAt, cursorId(cursor), PageRequest.of(0, limit + 1));
+        return toPage(rows, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentSummaryDTO> getHireHistory(Long userId, String cursor, Integer size) {
+        int limit = pageSize(size);
+        List<PaymentSummaryDTO> rows = paymentRepository.findSummariesByUserAndType(
+                userId, "HIRE", cursorCreatedAt(cursor), cursorId(cursor), PageRequest.of(0, limit + 1));
+        return toPage(rows, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentSummaryDTO> getPlayerHireHistory(Long playerId, String cursor, Integer size) {
+        int limit = pageSize(size);
+        List<PaymentSummaryDTO> rows = paymentRepository.findSummariesByPlayerAndType(
+                playerId, "HIRE", cursorCreatedAt(cursor), cursorId(cursor), PageRequest.of(0, limit + 1));
+        return toPage(rows, limit);
+    }
+
     public List<Payment> getGamePlayerPayments(Long gamePlayerId) {
         return paymentRepository.findByGamePlayerId(gamePlayerId);
     }
@@ -97,6 +133,46 @@ public class PaymentService {
         return paymentRepository.findByCreatedAtBetween(start, end);
     }
 
+    // Lấy thừa một dòng để biết còn trang sau hay không
+    private CursorPage<PaymentSummaryDTO> toPage(List<PaymentSummaryDTO> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<PaymentSummaryDTO> items = rows.subList(0, limit);
+        PaymentSummaryDTO last = items.get(limit - 1);
+        return new CursorPage<>(items, last.getCreatedAt() + "_" + last.getId());
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    // Cursor có dạng "<createdAt ISO>_<id>"
+    private LocalDateTime cursorCreatedAt(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(cursor.substring(0, cursor.lastIndexOf('_')));
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private Long cursorId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor.substring(cursor.lastIndexOf('_') + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     private void validateAmount(BigDecimal amount) {
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new PaymentException("Amount must be greater than 0");
@@ -0,0 +1,145 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.PayoutBatchSummary;
+import com.example.backend.dto.PayoutLine;
+import com.example.backend.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+// Quyết toán rút tiền theo lô: mỗi cửa sổ gộp các yêu cầu WITHDRAW PENDING theo player,
+// đánh dấu COMPLETED bằng một UPDATE theo tập (gắn payout_batch_id) rồi mới công bố file payout sau commit.
+@Service
+public class PayoutService {
+    private static final DateTimeFormatter BATCH_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentRollupService paymentRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${payout.output-dir:./payouts}")
+    private String outputDir;
+
+    // Bỏ qua các yêu cầu vừa tạo để không lọt dòng đang commit giữa lúc gộp và lúc UPDATE
+    @Value("${payout.settle-delay-seconds:60}")
+    private long settleDelaySeconds;
+
+    public PayoutService(PaymentRepository paymentRepository,
+                         PaymentRollupService paymentRollupService,
+                         PlatformTransactionManager transactionManager) {
+        this.paymentRepository = paymentRepository;
+        this.paymentRollupService = paymentRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${payout.window-cron:0 0 * * * *}")
+    public void scheduledSettle() {
+        settleWindow();
+    }
+
+    public synchronized PayoutBatchSummary settleWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusSeconds(settleDelaySeconds);
+        String batchId = "PAYOUT_" + now.format(BATCH_ID_FORMAT) + "_"
+                + UUID.randomUUID().toString().substring(0, 8);
+        Path[] tempFile = new Path[1];
+
+        PayoutBatchSummary summary;
+        try {
+            summary = transactionTemplate.execute(status -> {
+                List<PayoutLine> lines = paymentRepository.findPendingPayoutLines(cutoff);
+                PayoutBatchSummary result = new PayoutBatchSummary();
+                result.setBatchId(batchId);
+                result.setCutoff(cutoff);
+                if (lines.isEmpty()) {
+                    return result;
+                }
+                for (PayoutLine line : lines) {
+                    result.setRequests(result.getRequests() + line.getRequestCount());
+                    result.setTotalAmount(result.getTotalAmount().add(line.getTotalAmount()));
+                }
+                result.setPlayers(lines.size());
+
+                tempFile[0] = writePayoutFile(batchId, lines);
+                paymentRollupService.addPendingAsCompleted("WITHDRAW", cutoff);
+                int settled = paymentRepository.settlePendingWithdrawals(cutoff, now, batchId);
+                if (settled != result.getRequests()) {
+                    // Tập dòng thay đổi giữa lúc gộp và lúc UPDATE: rollback, lô sau sẽ xử lý lại
+                    throw new IllegalStateException("Payout batch changed while settling, retry next window");
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            // Commit thất bại: các yêu cầu vẫn PENDING nên file không được công bố
+            if (tempFile[0] != null) {
+                deleteQuietly(tempFile[0]);
+            }
+            throw e;
+        }
+
+        // Chỉ đổi sang tên chính thức sau khi commit thành công; nếu bước này lỗi, file .tmp vẫn giữ nguyên
+        // và các dòng đã mang payout_batch_id nên có thể dựng lại file từ DB
+        if (tempFile[0] != null) {
+            Path finalFile = tempFile[0].resolveSibling(batchId + ".csv");
+            try {
+                Files.move(tempFile[0], finalFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Payout batch " + batchId + " committed but file was not published", e);
+            }
+            summary.setPayoutFile(finalFile.toString());
+        }
+        return summary;
+    }
+
+    private Path writePayoutFile(String batchId, List<PayoutLine> lines) {
+        try {
+            Path dir = Paths.get(outputDir);
+            Files.createDirectories(dir);
+            Path tempFile = dir.resolve(batchId + ".csv.tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.write("batch_id,player_id,username,full_name,request_count,amount");
+                writer.newLine();
+                for (PayoutLine line : lines) {
+                    writer.write(batchId + "," + line.getPlayerId() + "," + csv(line.getUsername()) + ","
+                            + csv(line.getFullName()) + "," + line.getRequestCount() + ","
+                            + line.getTotalAmount().toPlainString());
+                    writer.newLine();
+                }
+            }
+            return tempFile;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // File tạm sẽ bị ghi đè ở lần chạy sau
+        }
+    }
+}
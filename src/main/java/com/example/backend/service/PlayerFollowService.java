@@ -0,0 +1,74 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.entity.GamePlayer;
+import com.example.backend.entity.PlayerFollow;
+import com.example.backend.entity.User;
+import com.example.backend.event.PlayerFollowChangedEvent;
+import com.example.backend.repository.PlayerFollowRepository;
+import com.example.backend.util.SingleFlightCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+
+@Service
+public class PlayerFollowService {
+    private static final int MAX_POPULAR_PAGE_SIZE = 50;
+
+    private final PlayerFollowRepository playerFollowRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlayerPopularityService playerPopularityService;
+    private final SingleFlightCache<Long, Long> followerCountCache;
+
+    public PlayerFollowService(PlayerFollowRepository playerFollowRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               PlayerPopularityService playerPopularityService,
+                               @Value("${cache.follower-count.ttl-ms:10000}") long followerCountTtlMs) {
+        this.playerFollowRepository = playerFollowRepository;
+        this.eventPublisher = eventPublisher;
+        this.playerPopularityService = playerPopularityService;
+        this.followerCountCache = new SingleFlightCache<>(followerCountTtlMs, 50_000);
+    }
+
+    @Transactional
+    public PlayerFollow follow(User follower, GamePlayer gamePlayer) {
+        PlayerFollow follow = new PlayerFollow();
+        follow.setFollower(follower);
+        follow.setGamePlayer(gamePlayer);
+        follow = playerFollowRepository.save(follow);
+        eventPublisher.publishEvent(new PlayerFollowChangedEvent(follower.getId(), gamePlayer.getId(), true));
+        return follow;
+    }
+
+    @Transactional
+    public boolean unfollow(Long followerId, Long gamePlayerId) {
+        if (!playerFollowRepository.existsByFollowerIdAndGamePlayerId(followerId, gamePlayerId)) {
+            return false;
+        }
+        playerFollowRepository.deleteByFollowerIdAndGamePlayerId(followerId, gamePlayerId);
+        eventPublisher.publishEvent(new PlayerFollowChangedEvent(followerId, gamePlayerId, false));
+        return true;
+    }
+
+    // Không cache ở đây: bản JSON đã render được CatalogCacheService cache theo phiên bản POPULAR_PLAYERS,
+    // một cache TTL riêng ở tầng dưới sẽ trả dữ liệu trước lần ghi dưới ETag mới
+    public CursorPage<Map<String, Object>> getPopularPlayers(int limit, String cursor) {
+        int size = Math.max(1, Math.min(limit, MAX_POPULAR_PAGE_SIZE));
+        return playerPopularityService.getPopularPlayers(size, cursor);
+    }
+
+    public Long getFollowerCount(Long gamePlayerId) {
+        return followerCountCache.get(gamePlayerId,
+            () -> playerFollowRepository.countFollowersByGamePlayerId(gamePlayerId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFollowChanged(PlayerFollowChangedEvent event) {
+        followerCountCache.invalidate(event.getGamePlayerId());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.event.GamePlayerChangedEvent;
+import com.example.backend.event.GamePlayerRatingChangedEvent;
+import com.example.backend.event.PlayerFollowChangedEvent;
+import com.example.backend.repository.PlayerPopularityRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// player_popularity: follower/rating được cộng theo delta trong transaction của follow/đánh giá,
+// score tính lại từ chính dòng đó. Trang phổ biến đọc theo index (score, game_player_id) với keyset.
+@Service
+public class PlayerPopularityService {
+    private static final String FOLLOW_DELTA_SQL =
+            "INSERT INTO player_popularity (game_player_id, follower_count, rating_sum, rating_count, score, updated_at) " +
+            "VALUES (?, GREATEST(?, 0), 0, 0, 0, NOW()) " +
+            "ON DUPLICATE KEY UPDATE follower_count = GREATEST(follower_count + ?, 0), updated_at = NOW()";
+
+    private static final String RATING_DELTA_SQL =
+            "INSERT INTO player_popularity (game_player_id, follower_count, rating_sum, rating_count, score, updated_at) " +
+            "VALUES (?, 0, GREATEST(?, 0), GREATEST(?, 0), 0, NOW()) " +
+            "ON DUPLICATE KEY UPDATE rating_sum = GREATEST(rating_sum + ?, 0), " +
+            "rating_count = GREATEST(rating_count + ?, 0), updated_at = NOW()";
+
+    private static final String SCORE_SQL =
+            "UPDATE player_popularity SET score = follower_count * 10 + " +
+            "IF(rating_count > 0, rating_sum / rating_count, 0) WHERE game_player_id = ?";
+
+    private static final String INSERT_EMPTY_SQL =
+            "INSERT IGNORE INTO player_popularity (game_player_id, follower_count, rating_sum, rating_count, score, updated_at) " +
+            "VALUES (?, 0, 0, 0, 0, NOW())";
+
+    // follower đếm trước theo từng game player rồi mới JOIN, tránh tích Descartes follows x reviews
+    private static final String BACKFILL_SQL =
+            "INSERT INTO player_popularity (game_player_id, follower_count, rating_sum, rating_count, score, updated_at) " +
+            "SELECT gp.id, COALESCE(f.cnt, 0), COALESCE(gp.rating_sum, 0), COALESCE(gp.rating_count, 0), " +
+            "COALESCE(f.cnt, 0) * 10 + IF(COALESCE(gp.rating_count, 0) > 0, gp.rating_sum / gp.rating_count, 0), NOW() " +
+            "FROM game_players gp " +
+            "LEFT JOIN (SELECT game_player_id, COUNT(*) AS cnt FROM player_follows GROUP BY game_player_id) f " +
+            "ON f.game_player_id = gp.id " +
+            "LEFT JOIN player_popularity pp ON pp.game_player_id = gp.id " +
+            "WHERE pp.game_player_id IS NULL";
+
+    private final PlayerPopularityRepository playerPopularityRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PlayerPopularityService(PlayerPopularityRepository playerPopularityRepository, JdbcTemplate jdbcTemplate) {
+        this.playerPopularityRepository = playerPopularityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener
+    public void onFollowChanged(PlayerFollowChangedEvent event) {
+        int delta = event.isFollowed() ? 1 : -1;
+        jdbcTemplate.update(FOLLOW_DELTA_SQL, event.getGamePlayerId(), delta, delta);
+        jdbcTemplate.update(SCORE_SQL, event.getGamePlayerId());
+    }
+
+    @EventListener
+    public void onRatingChanged(GamePlayerRatingChangedEvent event) {
+        jdbcTemplate.update(RATING_DELTA_SQL, event.getGamePlayerId(),
+                event.getSumDelta(), event.getCountDelta(), event.getSumDelta(), event.getCountDelta());
+        jdbcTemplate.update(SCORE_SQL, event.getGamePlayerId());
+    }
+
+    // Game player mới cần có dòng để xuất hiện ở cuối danh sách; bị xóa thì bỏ dòng
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGamePlayerChanged(GamePlayerChangedEvent event) {
+        if (event.isDeleted()) {
+            jdbcTemplate.update("DELETE FROM player_popularity WHERE game_player_id = ?", event.getGamePlayerId());
+        } else {
+            jdbcTemplate.update(INSERT_EMPTY_SQL, event.getGamePlayerId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissing() {
+        jdbcTemplate.update(BACKFILL_SQL);
+    }
+
+    // cursor = "<score>_<gamePlayerId>" của dòng cuối trang trước
+    public CursorPage<Map<String, Object>> getPopularPlayers(int limit, String cursor) {
+        List<Object[]> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = playerPopularityRepository.findTopAvailable(limit + 1);
+        } else {
+            int sep = cursor.lastIndexOf('_');
+            try {
+                rows = playerPopularityRepository.findAvailableAfter(Double.parseDouble(cursor.substring(0, sep)),
+                        Long.parseLong(cursor.substring(sep + 1)), limit + 1);
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            Object[] row = rows.get(i);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("playerId", ((Number) row[0]).longValue());
+            item.put("username", row[1]);
+            item.put("followerCount", ((Number) row[2]).longValue());
+            item.put("averageRating", ((Number) row[3]).doubleValue());
+            items.add(item);
+        }
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            Object[] last = rows.get(limit - 1);
+            nextCursor = ((Number) last[4]).doubleValue() + "_" + ((Number) last[0]).longValue();
+        }
+        return new CursorPage<>(items, nextCursor);
+    }
+}
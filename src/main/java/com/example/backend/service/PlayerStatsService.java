@@ -3,141 +3,301 @@ package com.example.backend.service;
 import com.example.backend.dto.PlayerStatsDTO;
 import com.example.backend.dto.ReviewDTO;
 import com.example.backend.dto.HireStatsDTO;
-import com.example.backend.entity.Payment;
-import com.example.backend.entity.PlayerReview;
-import com.example.backend.entity.User;
+import com.example.backend.entity.PlayerMonthlyStats;
+import com.example.backend.entity.PlayerStats;
+import com.example.backend.event.HireCanceledEvent;
+import com.example.backend.event.HireCompletedEvent;
+import com.example.backend.event.HireCreatedEvent;
+import com.example.backend.event.PlayerReviewCreatedEvent;
 import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.PlayerMonthlyStatsRepository;
 import com.example.backend.repository.PlayerReviewRepository;
+import com.example.backend.repository.PlayerStatsRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.event.HireEvent;
+import com.example.backend.util.SingleFlightCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.util.List;
 import java.util.stream.Collectors;
 
+// player_stats / player_monthly_stats được cập nhật tăng dần theo event (chạy trong transaction của nghiệp vụ).
+// Player chưa có dòng thống kê (dữ liệu cũ) sẽ được dựng lại một lần bằng truy vấn tổng hợp trên payments/player_reviews.
 @Service
 public class PlayerStatsService {
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final int RECENT_REVIEW_LIMIT = 5;
+
+    private static final String STATS_DELTA_SQL =
+            "INSERT INTO player_stats (player_id, total_hires, completed_hires, canceled_hires, total_hire_hours, " +
+            "total_earnings, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_hires = total_hires + VALUES(total_hires), " +
+            "completed_hires = completed_hires + VALUES(completed_hires), " +
+            "canceled_hires = canceled_hires + VALUES(canceled_hires), " +
+            "total_hire_hours = total_hire_hours + VALUES(total_hire_hours), " +
+            "total_earnings = total_earnings + VALUES(total_earnings), " +
+            "updated_at = VALUES(updated_at)";
+
+    // Dòng đã tồn tại (rebuildIfMissing chạy trước); bucket là số sao 1-5
+    private static final String REVIEW_DELTA_SQL =
+            "UPDATE player_stats SET rating_sum = rating_sum + ?, review_count = review_count + 1, " +
+            "rating1 = rating1 + IF(? = 1, 1, 0), rating2 = rating2 + IF(? = 2, 1, 0), " +
+            "rating3 = rating3 + IF(? = 3, 1, 0), rating4 = rating4 + IF(? = 4, 1, 0), " +
+            "rating5 = rating5 + IF(? = 5, 1, 0), updated_at = ? WHERE player_id = ?";
+
+    private static final String STATS_REPLACE_SQL =
+            "INSERT INTO player_stats (player_id, total_hires, completed_hires, canceled_hires, total_hire_hours, " +
+            "total_earnings, rating_sum, review_count, rating1, rating2, rating3, rating4, rating5, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_hires = VALUES(total_hires), " +
+            "completed_hires = VALUES(completed_hires), " +
+            "canceled_hires = VALUES(canceled_hires), " +
+            "total_hire_hours = VALUES(total_hire_hours), " +
+            "total_earnings = VALUES(total_earnings), " +
+            "rating_sum = VALUES(rating_sum), " +
+            "review_count = VALUES(review_count), " +
+            "rating1 = VALUES(rating1), rating2 = VALUES(rating2), rating3 = VALUES(rating3), " +
+            "rating4 = VALUES(rating4), rating5 = VALUES(rating5), " +
+            "updated_at = VALUES(updated_at)";
+
+    private static final String MONTHLY_DELTA_SQL =
+            "INSERT INTO player_monthly_stats (player_id, period, total_hires, completed_hires, total_hours, earnings) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_hires = total_hires + VALUES(total_hires), " +
+            "completed_hires = completed_hires + VALUES(completed_hires), " +
+            "total_hours = total_hours + VALUES(total_hours), " +
+            "earnings = earnings + VALUES(earnings)";
+
+    // Dòng player_stats cũ từng cộng cả giờ của lượt đã hủy; tính lại tuyệt đối nên chạy lại nhiều lần vẫn đúng
+    private static final String HOURS_CORRECTION_SQL =
+            "UPDATE player_stats s SET s.total_hire_hours = (" +
+            "SELECT COALESCE(SUM(TIMESTAMPDIFF(HOUR, p.start_time, p.end_time)), 0) FROM payments p " +
+            "WHERE p.player_id = s.player_id AND p.type = 'HIRE' " +
+            "AND (p.hire_status IS NULL OR p.hire_status <> 'CANCELED')) " +
+            "WHERE s.canceled_hires > 0";
+
+    private static final String MONTHLY_DELETE_SQL =
+            "DELETE FROM player_monthly_stats WHERE player_id = ?";
+
     private final PaymentRepository paymentRepository;
     private final PlayerReviewRepository playerReviewRepository;
     private final UserRepository userRepository;
+    private final PlayerStatsRepository playerStatsRepository;
+    private final PlayerMonthlyStatsRepository playerMonthlyStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SingleFlightCache<Long, PlayerStatsDTO> statsCache;
 
     public PlayerStatsService(PaymentRepository paymentRepository,
                             PlayerReviewRepository playerReviewRepository,
-                            UserRepository userRepository) {
+                            UserRepository userRepository,
+                            PlayerStatsRepository playerStatsRepository,
+                            PlayerMonthlyStatsRepository playerMonthlyStatsRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${cache.player-stats.ttl-ms:5000}") long statsTtlMs) {
         this.paymentRepository = paymentRepository;
         this.playerReviewRepository = playerReviewRepository;
         this.userRepository = userRepository;
+        this.playerStatsRepository = playerStatsRepository;
+        this.playerMonthlyStatsRepository = playerMonthlyStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statsCache = new SingleFlightCache<>(statsTtlMs, 10_000);
     }
 
-    @Transactional(readOnly = true)
+    // Các request trùng playerId chờ chung một lần tính; transaction chỉ mở trong lần tính đó
     public PlayerStatsDTO getPlayerStats(Long playerId) {
-        User player = userRepository.findById(playerId)
+        return statsCache.get(playerId, () -> transactionTemplate.execute(status -> loadPlayerStats(playerId)));
+    }
+
+    private PlayerStatsDTO loadPlayerStats(Long playerId) {
+        String playerName = userRepository.findUsernameById(playerId)
             .orElseThrow(() -> new RuntimeException("Player not found"));
 
-        // Lấy tất cả các lượt thuê của player
-        List<Payment> hires = paymentRepository.findByPlayerIdAndTypeOrderByCreatedAtDesc(playerId, "HIRE");
-        
-        // Lấy tất cả đánh giá của player
-        List<PlayerReview> reviews = playerReviewRepository.findByPlayerId(playerId);
+        PlayerStats row = getStatsRow(playerId);
 
         PlayerStatsDTO stats = new PlayerStatsDTO();
         stats.setPlayerId(playerId);
-        stats.setPlayerName(player.getUsername());
-
-        // Tính toán thống kê cơ bản
-        stats.setTotalHires(hires.size());
-        stats.setCompletedHires((int) hires.stream()
-            .filter(h -> "COMPLETED".equals(h.getHireStatus()))
-            .count());
-        stats.setTotalHireHours(calculateTotalHours(hires));
-        stats.setCompletionRate(calculateCompletionRate(hires));
-        stats.setTotalEarnings(calculateTotalEarnings(hires));
-
-        // Tính toán rating
-        Double averageRating = playerReviewRepository.getAverageRatingByPlayerId(playerId);
-        stats.setAverageRating(averageRating != null ? averageRating : 0.0);
-        stats.setTotalReviews(reviews.size());
+        stats.setPlayerName(playerName);
+        stats.setTotalHires(row.getTotalHires());
+        stats.setCompletedHires(row.getCompletedHires());
+        stats.setTotalHireHours(row.getTotalHireHours().intValue());
+        stats.setCompletionRate(row.getTotalHires() == 0 ? 0.0
+            : (double) row.getCompletedHires() / row.getTotalHires() * 100);
+        stats.setTotalEarnings(row.getTotalEarnings());
+        stats.setAverageRating(averageRating(row));
+        stats.setTotalReviews(row.getReviewCount());
+        stats.setRatingHistogram(ratingHistogram(row));
 
         // Lấy 5 đánh giá gần nhất
-        stats.setRecentReviews(getRecentReviews(reviews));
+        stats.setRecentReviews(getRecentReviews(playerId));
 
-        // Tính toán thống kê theo thời gian
-        stats.setHireStats(getHireStatsByPeriod(hires));
+        stats.setHireStats(playerMonthlyStatsRepository.findByPlayerIdOrderByPeriodAsc(playerId).stream()
+            .map(this::toHireStats)
+            .collect(Collectors.toList()));
 
         return stats;
     }
 
-    private Integer calculateTotalHours(List<Payment> hires) {
-        return hires.stream()
-            .filter(h -> h.getStartTime() != null && h.getEndTime() != null)
-            .mapToInt(h -> {
-                long hours = java.time.Duration.between(h.getStartTime(), h.getEndTime()).toHours();
-                return (int) hours;
-            })
-            .sum();
+    @Transactional
+    public PlayerStats getStatsRow(Long playerId) {
+        rebuildIfMissing(playerId);
+        return playerStatsRepository.findById(playerId)
+            .orElseThrow(() -> new IllegalStateException("Player stats missing after rebuild"));
+    }
+
+    public double averageRating(PlayerStats row) {
+        return row.getReviewCount() == 0 ? 0.0 : (double) row.getRatingSum() / row.getReviewCount();
+    }
+
+    public List<Integer> ratingHistogram(PlayerStats row) {
+        return List.of(row.getRating1(), row.getRating2(), row.getRating3(), row.getRating4(), row.getRating5());
+    }
+
+    @EventListener
+    public void onHireCreated(HireCreatedEvent event) {
+        if (rebuildIfMissing(event.getPlayerId())) return;
+        long hours = hoursBetween(event.getStartTime(), event.getEndTime());
+        applyStatsDelta(event.getPlayerId(), 1, 0, 0, hours, BigDecimal.ZERO);
+        applyMonthlyDelta(event.getPlayerId(), event.getCreatedAt(), 1, 0, 0, BigDecimal.ZERO);
+    }
+
+    @EventListener
+    public void onHireCompleted(HireCompletedEvent event) {
+        if (rebuildIfMissing(event.getPlayerId())) return;
+        long hours = hoursBetween(event.getStartTime(), event.getEndTime());
+        applyStatsDelta(event.getPlayerId(), 0, 1, 0, 0, event.getAmount());
+        applyMonthlyDelta(event.getPlayerId(), event.getCreatedAt(), 0, 1, hours, event.getAmount());
+    }
+
+    @EventListener
+    public void onHireCanceled(HireCanceledEvent event) {
+        if (rebuildIfMissing(event.getPlayerId())) return;
+        // Giờ của lượt bị hủy đã được cộng lúc tạo, trừ lại để khớp aggregateHireTotals
+        long hours = hoursBetween(event.getStartTime(), event.getEndTime());
+        applyStatsDelta(event.getPlayerId(), 0, 0, 1, -hours, BigDecimal.ZERO);
+    }
+
+    @EventListener
+    public void onReviewCreated(PlayerReviewCreatedEvent event) {
+        if (rebuildIfMissing(event.getPlayerId())) return;
+        int rating = event.getRating();
+        jdbcTemplate.update(REVIEW_DELTA_SQL, rating, rating, rating, rating, rating, rating,
+            Timestamp.valueOf(LocalDateTime.now()), event.getPlayerId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void correctCanceledHours() {
+        jdbcTemplate.update(HOURS_CORRECTION_SQL);
     }
 
-    private Double calculateCompletionRate(List<Payment> hires) {
-        if (hires.isEmpty()) return 0.0;
-        long completed = hires.stream()
-            .filter(h -> "COMPLETED".equals(h.getHireStatus()))
-            .count();
-        return (double) completed / hires.size() * 100;
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void evictOnHire(HireEvent event) {
+        statsCache.invalidate(event.getPlayerId());
     }
 
-    private BigDecimal calculateTotalEarnings(List<Payment> hires) {
-        return hires.stream()
-            .filter(h -> "COMPLETED".equals(h.getHireStatus()))
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void evictOnReview(PlayerReviewCreatedEvent event) {
+        statsCache.invalidate(event.getPlayerId());
     }
 
-    private List<ReviewDTO> getRecentReviews(List<PlayerReview> reviews) {
-        return reviews.stream()
-            .sorted(Comparator.comparing(PlayerReview::getCreatedAt).reversed())
-            .limit(5)
-            .map(review -> {
+    // Trả về true nếu vừa dựng lại; khi đó dữ liệu nguồn đã gồm thay đổi hiện tại nên không cộng delta nữa
+    private boolean rebuildIfMissing(Long playerId) {
+        if (playerStatsRepository.existsById(playerId)) {
+            return false;
+        }
+        rebuild(playerId);
+        return true;
+    }
+
+    @Transactional
+    public void rebuild(Long playerId) {
+        Object[] totals = paymentRepository.aggregateHireTotals(playerId).get(0);
+        Object[] rating = playerReviewRepository.aggregateRatingByPlayerId(playerId).get(0);
+
+        jdbcTemplate.update(STATS_REPLACE_SQL, playerId, toLong(totals[0]), toLong(totals[1]), toLong(totals[2]),
+            toLong(totals[3]), toBigDecimal(totals[4]), toLong(rating[1]), toLong(rating[0]),
+            toLong(rating[2]), toLong(rating[3]), toLong(rating[4]), toLong(rating[5]), toLong(rating[6]),
+            Timestamp.valueOf(LocalDateTime.now()));
+
+        jdbcTemplate.update(MONTHLY_DELETE_SQL, playerId);
+        List<Object[]> monthlyRows = paymentRepository.aggregateHireStatsByPeriod(playerId).stream()
+            .map(r -> new Object[]{playerId, r[0], toLong(r[1]), toLong(r[2]), toLong(r[3]), toBigDecimal(r[4])})
+            .collect(Collectors.toList());
+        if (!monthlyRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(MONTHLY_DELTA_SQL, monthlyRows);
+        }
+    }
+
+    // Tổng giờ thuê của các lượt chưa bị hủy, tính trong DB
+    @Transactional(readOnly = true)
+    public long getTotalHireHours(Long playerId) {
+        return toLong(paymentRepository.aggregateHireTotals(playerId).get(0)[3]);
+    }
+
+    private void applyStatsDelta(Long playerId, int hires, int completed, int canceled, long hours,
+                                 BigDecimal earnings) {
+        jdbcTemplate.update(STATS_DELTA_SQL, playerId, hires, completed, canceled, hours, earnings,
+            Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private void applyMonthlyDelta(Long playerId, LocalDateTime createdAt, int hires, int completed,
+                                   long hours, BigDecimal earnings) {
+        if (createdAt == null) return;
+        jdbcTemplate.update(MONTHLY_DELTA_SQL, playerId, createdAt.format(PERIOD_FORMAT),
+            hires, completed, hours, earnings);
+    }
+
+    private long hoursBetween(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) return 0;
+        return java.time.Duration.between(start, end).toHours();
+    }
+
+    private HireStatsDTO toHireStats(PlayerMonthlyStats row) {
+        HireStatsDTO dto = new HireStatsDTO();
+        dto.setPeriod(row.getPeriod());
+        dto.setTotalHires(row.getTotalHires());
+        dto.setCompletedHires(row.getCompletedHires());
+        dto.setTotalHours(row.getTotalHours().intValue());
+        dto.setEarnings(row.getEarnings());
+        return dto;
+    }
+
+    private List<ReviewDTO> getRecentReviews(Long playerId) {
+        return playerReviewRepository.findRecentByPlayerId(playerId, PageRequest.of(0, RECENT_REVIEW_LIMIT)).stream()
+            .map(r -> {
                 ReviewDTO dto = new ReviewDTO();
-                dto.setReviewId(review.getId());
-                dto.setRating(review.getRating());
-                dto.setComment(review.getComment());
-                dto.setReviewerName(review.getReviewer().getUsername());
-                dto.setCreatedAt(review.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                dto.setReviewId((Long) r[0]);
+                dto.setRating((Integer) r[1]);
+                dto.setComment((String) r[2]);
+                dto.setReviewerName((String) r[3]);
+                dto.setCreatedAt(((LocalDateTime) r[4]).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
                 return dto;
             })
             .collect(Collectors.toList());
     }
 
-    private List<HireStatsDTO> getHireStatsByPeriod(List<Payment> hires) {
-        Map<String, HireStatsDTO> statsMap = new HashMap<>();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-
-        for (Payment hire : hires) {
-            String period = hire.getCreatedAt().format(formatter);
-            HireStatsDTO stats = statsMap.computeIfAbsent(period, k -> {
-                HireStatsDTO dto = new HireStatsDTO();
-                dto.setPeriod(k);
-                dto.setTotalHires(0);
-                dto.setCompletedHires(0);
-                dto.setTotalHours(0);
-                dto.setEarnings(BigDecimal.ZERO);
-                return dto;
-            });
-
-            stats.setTotalHires(stats.getTotalHires() + 1);
-            if ("COMPLETED".equals(hire.getHireStatus())) {
-                stats.setCompletedHires(stats.getCompletedHires() + 1);
-                if (hire.getStartTime() != null && hire.getEndTime() != null) {
-                    long hours = java.time.Duration.between(hire.getStartTime(), hire.getEndTime()).toHours();
-                    stats.setTotalHours(stats.getTotalHours() + (int) hours);
-                }
-                stats.setEarnings(stats.getEarnings().add(hire.getAmount()));
-            }
-        }
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
 
-        return new ArrayList<>(statsMap.values());
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) return BigDecimal.ZERO;
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,249 @@
+package com.example.backend.service;
+
+import com.example.backend.event.PlayerFollowChangedEvent;
+import com.example.backend.event.UserBlockChangedEvent;
+import com.example.backend.repository.GamePlayerRepository;
+import com.example.backend.repository.PlayerFollowRepository;
+import com.example.backend.repository.UserBlockRepository;
+import com.example.backend.util.SingleFlightCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Gợi ý game player theo đồ thị follow: người dùng -> game player đã follow -> chủ của game player đó
+// -> các game player mà chủ đó follow. commonFollowers = số chủ dẫn tới ứng viên.
+// Đồ thị giữ dạng CSR (mảng offset + mảng đích) dựng lại định kỳ; follow/chặn của chính người hỏi đọc mới từ DB.
+// Kết quả top 10 được cache cho tới khi người đó follow/bỏ follow/chặn; khi đó worker riêng tính trước bản mới.
+@Service
+public class PlayerSuggestionService {
+    private static final int SUGGESTION_LIMIT = 10;
+
+    private final PlayerFollowRepository playerFollowRepository;
+    private final GamePlayerRepository gamePlayerRepository;
+    private final UserBlockRepository userBlockRepository;
+    private final SingleFlightCache<Long, List<Map<String, Object>>> suggestionCache;
+    private volatile FollowGraph graph = FollowGraph.build(List.of(), List.of());
+    private ExecutorService workers;
+
+    @Value("${suggestions.workers:2}")
+    private int workerCount;
+
+    public PlayerSuggestionService(PlayerFollowRepository playerFollowRepository,
+                                   GamePlayerRepository gamePlayerRepository,
+                                   UserBlockRepository userBlockRepository,
+                                   @Value("${suggestions.cache-ttl-ms:3600000}") long cacheTtlMs) {
+        this.playerFollowRepository = playerFollowRepository;
+        this.gamePlayerRepository = gamePlayerRepository;
+        this.userBlockRepository = userBlockRepository;
+        this.suggestionCache = new SingleFlightCache<>(cacheTtlMs, 50_000);
+    }
+
+    @PostConstruct
+    public void start() {
+        workers = Executors.newFixedThreadPool(Math.max(1, workerCount), runnable -> {
+            Thread thread = new Thread(runnable, "player-suggestion-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public List<Map<String, Object>> getSuggestions(Long userId) {
+        // Trượt cache thì tính ngay trên luồng request, không xếp hàng sau các lần tính trước của worker
+        return suggestionCache.get(userId, () -> compute(userId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFollowChanged(PlayerFollowChangedEvent event) {
+        refresh(event.getFollowerId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBlockChanged(UserBlockChangedEvent event) {
+        refresh(event.getBlockerId());
+        refresh(event.getBlockedId());
+    }
+
+    // Bỏ kết quả cũ và tính trước trên worker để lần hỏi sau trúng cache
+    private void refresh(Long userId) {
+        suggestionCache.invalidate(userId);
+        workers.execute(() -> suggestionCache.get(userId, () -> compute(userId)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${suggestions.graph-rebuild-interval-ms:600000}",
+               initialDelayString = "${suggestions.graph-rebuild-interval-ms:600000}")
+    public void rebuild() {
+        graph = FollowGraph.build(playerFollowRepository.findAllEdges(), gamePlayerRepository.findAllSuggestionNodes());
+    }
+
+    private List<Map<String, Object>> compute(Long userId) {
+        FollowGraph g = graph;
+        Set<Long> followed = new HashSet<>(playerFollowRepository.findGamePlayerIdsByFollowerId(userId));
+        Set<Long> blocked = new HashSet<>(userBlockRepository.findBlockRelatedUserIds(userId));
+
+        Map<Integer, Integer> common = new HashMap<>();
+        for (Long gamePlayerId : followed) {
+            int gp = g.gamePlayerIndex(gamePlayerId);
+            if (gp < 0) continue;
+            int owner = g.userIndex(g.ownerIds[gp]);
+            if (owner < 0) continue;
+            for (int e = g.followOffsets[owner]; e < g.followOffsets[owner + 1]; e++) {
+                common.merge(g.followTargets[e], 1, Integer::sum);
+            }
+        }
+
+        List<Integer> candidates = new ArrayList<>();
+        for (Integer gp : common.keySet()) {
+            if (eligible(g, gp, userId, followed, blocked)) candidates.add(gp);
+        }
+        candidates.sort((a, b) -> {
+            int c = Integer.compare(common.get(b), common.get(a));
+            if (c != 0) return c;
+            c = Integer.compare(g.followerCounts[b], g.followerCounts[a]);
+            return c != 0 ? c : Double.compare(g.ratings[b], g.ratings[a]);
+        });
+
+        List<Map<String, Object>> result = new ArrayList<>(SUGGESTION_LIMIT);
+        Set<Integer> picked = new HashSet<>();
+        for (int i = 0; i < candidates.size() && result.size() < SUGGESTION_LIMIT; i++) {
+            int gp = candidates.get(i);
+            picked.add(gp);
+            result.add(toItem(g, gp, common.get(gp)));
+        }
+        // Chưa đủ thì bù bằng game player nhiều follower nhất (commonFollowers = 0)
+        for (int i = 0; i < g.popularOrder.length && result.size() < SUGGESTION_LIMIT; i++) {
+            int gp = g.popularOrder[i];
+            if (!picked.contains(gp) && eligible(g, gp, userId, followed, blocked)) {
+                result.add(toItem(g, gp, 0));
+            }
+        }
+        return result;
+    }
+
+    private static boolean eligible(FollowGraph g, int gp, Long userId, Set<Long> followed, Set<Long> blocked) {
+        long owner = g.ownerIds[gp];
+        return g.available.get(gp)
+                && owner != userId
+                && !followed.contains(g.gamePlayerIds[gp])
+                && !blocked.contains(owner);
+    }
+
+    private static Map<String, Object> toItem(FollowGraph g, int gp, int commonFollowers) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("playerId", g.gamePlayerIds[gp]);
+        item.put("username", g.usernames[gp]);
+        item.put("followerCount", g.followerCounts[gp]);
+        item.put("averageRating", g.ratings[gp]);
+        item.put("commonFollowers", commonFollowers);
+        return item;
+    }
+
+    // Ảnh chụp bất biến của đồ thị; chỉ số dày (dense index) lấy bằng tìm nhị phân trên mảng id đã sắp xếp
+    private static final class FollowGraph {
+        long[] userIds;          // người dùng có follow ít nhất một game player
+        int[] followOffsets;     // follow của userIds[u] nằm ở followTargets[followOffsets[u] .. followOffsets[u + 1])
+        int[] followTargets;     // chỉ số game player
+        long[] gamePlayerIds;
+        long[] ownerIds;
+        String[] usernames;
+        double[] ratings;
+        int[] followerCounts;
+        BitSet available;
+        int[] popularOrder;      // game player AVAILABLE theo follower giảm dần, rating giảm dần
+
+        static FollowGraph build(List<Object[]> edges, List<Object[]> nodes) {
+            FollowGraph g = new FollowGraph();
+            int n = nodes.size();
+            Object[][] sortedNodes = nodes.toArray(new Object[0][]);
+            Arrays.sort(sortedNodes, (a, b) -> Long.compare((Long) a[0], (Long) b[0]));
+            g.gamePlayerIds = new long[n];
+            g.ownerIds = new long[n];
+            g.usernames = new String[n];
+            g.ratings = new double[n];
+            g.followerCounts = new int[n];
+            g.available = new BitSet(n);
+            for (int i = 0; i < n; i++) {
+                Object[] row = sortedNodes[i];
+                g.gamePlayerIds[i] = (Long) row[0];
+                g.ownerIds[i] = (Long) row[1];
+                g.usernames[i] = (String) row[2];
+                g.ratings[i] = row[4] == null ? 0.0 : ((Number) row[4]).doubleValue();
+                if ("AVAILABLE".equals(row[3])) g.available.set(i);
+            }
+
+            long[] followers = new long[edges.size()];
+            int[] targets = new int[edges.size()];
+            int m = 0;
+            for (Object[] edge : edges) {
+                int gp = Arrays.binarySearch(g.gamePlayerIds, (Long) edge[1]);
+                if (gp < 0) continue;
+                followers[m] = (Long) edge[0];
+                targets[m] = gp;
+                g.followerCounts[gp]++;
+                m++;
+            }
+            g.userIds = Arrays.stream(followers, 0, m).distinct().sorted().toArray();
+            g.followOffsets = new int[g.userIds.length + 1];
+            for (int e = 0; e < m; e++) {
+                g.followOffsets[Arrays.binarySearch(g.userIds, followers[e]) + 1]++;
+            }
+            for (int u = 0; u < g.userIds.length; u++) {
+                g.followOffsets[u + 1] += g.followOffsets[u];
+            }
+            g.followTargets = new int[m];
+            int[] cursor = Arrays.copyOf(g.followOffsets, g.userIds.length);
+            for (int e = 0; e < m; e++) {
+                g.followTargets[cursor[Arrays.binarySearch(g.userIds, followers[e])]++] = targets[e];
+            }
+
+            g.popularOrder = g.available.stream().boxed()
+                    .sorted((a, b) -> {
+                        int c = Integer.compare(g.followerCounts[b], g.followerCounts[a]);
+                        return c != 0 ? c : Double.compare(g.ratings[b], g.ratings[a]);
+                    })
+                    .limit(SUGGESTION_LIMIT * 10L)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            return g;
+        }
+
+        int userIndex(long userId) {
+            int i = Arrays.binarySearch(userIds, userId);
+            return i >= 0 ? i : -1;
+        }
+
+        int gamePlayerIndex(long gamePlayerId) {
+            int i = Arrays.binarySearch(gamePlayerIds, gamePlayerId);
+            return i >= 0 ? i : -1;
+        }
+    }
+}
@@ -20,11 +20,14 @@ import java.util.Set;
 public class PromotionService {
     private final PromotionRepository promotionRepository;
     private final GameRepository gameRepository;
+    private final GameCatalogService gameCatalogService;
 
     public PromotionService(PromotionRepository promotionRepository,
-                          GameRepository gameRepository) {
+                          GameRepository gameRepository,
+                          GameCatalogService gameCatalogService) {
         this.promotionRepository = promotionRepository;
         this.gameRepository = gameRepository;
+        this.gameCatalogService = gameCatalogService;
     }
 
     public Promotion createPromotion(String code, String name, String description,
@@ -43,9 +46,7 @@ public class PromotionService {
         // Get games by IDs
         Set<Game> games = new HashSet<>();
         for (Long gameId : gameIds) {
-            Game game = gameRepository.findById(gameId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Game not found with id: " + gameId));
-            games.add(game);
+            games.add(gameRepository.getReferenceById(gameCatalogService.getById(gameId).getId()));
         }
 
         Promotion promotion = new Promotion();
@@ -79,9 +80,7 @@ public class PromotionService {
         // Get games by IDs
         Set<Game> games = new HashSet<>();
         for (Long gameId : gameIds) {
-            Game game = gameRepository.findById(gameId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Game not found with id: " + gameId));
-            games.add(game);
+            games.add(gameRepository.getReferenceById(gameCatalogService.getById(gameId).getId()));
         }
 
         promotion.setName(name);
@@ -142,8 +141,10 @@ public class PromotionService {
             throw new PromotionException("Minimum purchase amount not met");
         }
 
-        boolean isGameApplicable = promotion.getApplicableGames().stream()
-                .anyMatch(game -> game.getName().equals(gameName));
+        // Tên game tra trên danh mục trong bộ nhớ; chỉ kiểm tra bảng nối, không nạp các Game của khuyến mãi
+        boolean isGameApplicable = gameCatalogService.findByName(gameName)
+                .map(game -> promotionRepository.isApplicableToGame(promotion.getId(), game.getId()))
+                .orElse(false);
         if (!isGameApplicable) {
             throw new PromotionException("Promotion is not applicable for this game");
         }
@@ -9,29 +9,82 @@ import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Set;
 
 @Service
 public class QRCodeService {
-    
+    // QRCodeWriter không giữ trạng thái, dùng chung cho mọi request.
+    // Không cache ảnh: nội dung chứa transactionId duy nhất của từng intent nên gần như không lặp lại.
+    private final QRCodeWriter qrCodeWriter = new QRCodeWriter();
+
+    private static final Set<String> QR_METHODS = Set.of("MOMO", "VNPAY", "ZALOPAY");
+
     public String generateQRCode(String content, int width, int height) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, width, height);
-        
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-        
-        return "data:image/png;base64," + Base64.getEncoder().encodeToString(outputStream.toByteArray());
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(renderPng(content, width, height));
     }
 
-    public String generatePaymentQRCode(String method, String amount, String userId, String transactionId) throws WriterException, IOException {
-        String content = switch (method.toUpperCase()) {
+    public String generatePaymentQRCode(String method, BigDecimal amount, String userId, String transactionId) throws WriterException, IOException {
+        return generateQRCode(buildPaymentContent(method, amount, userId, transactionId), 300, 300);
+    }
+
+    public boolean hasQRCode(String method) {
+        return method != null && QR_METHODS.contains(method.toUpperCase());
+    }
+
+    // Cùng một cách viết số tiền cho QR lúc tạo intent và lúc render lại ("50000", không phải "50000.00")
+    public String buildPaymentContent(String method, BigDecimal amount, String userId, String transactionId) {
+        return buildPaymentContent(method, amount.stripTrailingZeros().toPlainString(), userId, transactionId);
+    }
+
+    private String buildPaymentContent(String method, String amount, String userId, String transactionId) {
+        return switch (method.toUpperCase()) {
             case "MOMO" -> String.format("momo://payment?amount=%s&userId=%s&transactionId=%s", amount, userId, transactionId);
             case "VNPAY" -> String.format("vnpay://payment?amount=%s&userId=%s&transactionId=%s", amount, userId, transactionId);
             case "ZALOPAY" -> String.format("zalopay://payment?amount=%s&userId=%s&transactionId=%s", amount, userId, transactionId);
             default -> throw new IllegalArgumentException("Unsupported payment method: " + method);
         };
-        
-        return generateQRCode(content, 300, 300);
     }
-} 
\ No newline at end of file
+
+    public byte[] renderPng(String content, int width, int height) throws WriterException, IOException {
+        BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, width, height);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    // SVG dùng ma trận module gốc (1 đơn vị/module) và viewBox nên phóng to không bị vỡ
+    public byte[] renderSvg(String content, int size) throws WriterException {
+        BitMatrix matrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, 0, 0);
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+
+        StringBuilder svg = new StringBuilder(width * height / 2 + 256);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 ")
+           .append(width).append(' ').append(height)
+           .append("\" width=\"").append(size).append("\" height=\"").append(size)
+           .append("\" shape-rendering=\"crispEdges\">")
+           .append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>")
+           .append("<path fill=\"#000\" d=\"");
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int runStart = x;
+                while (x < width && matrix.get(x, y)) {
+                    x++;
+                }
+                // Gộp các module đen liền nhau trên một hàng thành một hình chữ nhật
+                svg.append('M').append(runStart).append(' ').append(y)
+                   .append('h').append(x - runStart).append("v1h-").append(x - runStart).append('z');
+            }
+        }
+        svg.append("\"/></svg>");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -8,6 +8,11 @@ import com.example.backend.repository.GamePlayerRepository;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.exception.ResourceNotFoundException;
 import com.example.backend.exception.ReviewException;
+import com.example.backend.event.GamePlayerChangedEvent;
+import com.example.backend.event.GamePlayerRatingChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -20,13 +25,16 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final GamePlayerRepository gamePlayerRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ReviewService(ReviewRepository reviewRepository,
                         GamePlayerRepository gamePlayerRepository,
-                        UserRepository userRepository) {
+                        UserRepository userRepository,
+                        ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
         this.gamePlayerRepository = gamePlayerRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Review createReview(Long gamePlayerId, Long userId, Double rating, String comment) {
@@ -51,7 +59,9 @@ public class ReviewService {
         review.setCreatedAt(LocalDateTime.now());
         review.setStatus("ACTIVE");
 
-        return reviewRepository.save(review);
+        review = reviewRepository.save(review);
+        applyRating(gamePlayerId, rating, 1);
+        return review;
     }
 
     public Review updateReview(Long reviewId, Double rating, String comment) {
@@ -60,6 +70,13 @@ public class ReviewService {
 
         validateRating(rating);
 
+        if ("ACTIVE".equals(review.getStatus())) {
+            Long gamePlayerId = review.getGamePlayer().getId();
+            double sumDelta = rating - review.getRating();
+            gamePlayerRepository.applyRatingChange(gamePlayerId, sumDelta, bucket(review.getRating()), bucket(rating));
+            eventPublisher.publishEvent(new GamePlayerRatingChangedEvent(gamePlayerId, sumDelta, 0));
+            eventPublisher.publishEvent(new GamePlayerChangedEvent(gamePlayerId, false));
+        }
         review.setRating(rating);
         review.setComment(comment);
         review.setUpdatedAt(LocalDateTime.now());
@@ -70,6 +87,9 @@ public class ReviewService {
     public void deleteReview(Long reviewId) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
+        if ("ACTIVE".equals(review.getStatus())) {
+            applyRating(review.getGamePlayer().getId(), review.getRating(), -1);
+        }
         review.setStatus("DELETED");
         reviewRepository.save(review);
     }
@@ -83,7 +103,16 @@ public class ReviewService {
     }
 
     public Double getGamePlayerAverageRating(Long gamePlayerId) {
-        return reviewRepository.findAverageRatingByGamePlayerId(gamePlayerId);
+        GamePlayer gamePlayer = gamePlayerRepository.findById(gamePlayerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Game player not found"));
+        Integer count = gamePlayer.getRatingCount();
+        return count == null || count == 0 ? 0.0 : gamePlayer.getRatingSum() / count;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRatingAggregates() {
+        gamePlayerRepository.backfillRatingAggregates();
+        gamePlayerRepository.resetRatingAggregatesWithoutReviews();
     }
 
     public List<Review> getReviewsByStatus(String status) {
@@ -91,6 +120,18 @@ public class ReviewService {
         return reviewRepository.findByStatus(status);
     }
 
+    // Cộng/trừ một review vào tổng, số lượng và histogram 1-5 sao của game player
+    private void applyRating(Long gamePlayerId, Double rating, int countDelta) {
+        gamePlayerRepository.applyRatingDelta(gamePlayerId, rating * countDelta, countDelta, bucket(rating));
+        eventPublisher.publishEvent(new GamePlayerRatingChangedEvent(gamePlayerId, rating * countDelta, countDelta));
+        // UPDATE hàng loạt không qua entity listener
+        eventPublisher.publishEvent(new GamePlayerChangedEvent(gamePlayerId, false));
+    }
+
+    private static int bucket(Double rating) {
+        return (int) Math.max(1, Math.min(5, Math.floor(rating + 0.5)));
+    }
+
     private void validateRating(Double rating) {
         if (rating < 1.0 || rating > 5.0) {
             throw new ReviewException("Rating must be between 1.0 and 5.0");
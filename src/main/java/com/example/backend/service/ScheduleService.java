@@ -8,6 +8,8 @@ import com.example.backend.repository.GamePlayerRepository;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.exception.ResourceNotFoundException;
 import com.example.backend.exception.ScheduleConflictException;
+import com.example.backend.event.ScheduleChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -19,13 +21,16 @@ public class ScheduleService {
     private final ScheduleRepository scheduleRepository;
     private final GamePlayerRepository gamePlayerRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ScheduleService(ScheduleRepository scheduleRepository,
                           GamePlayerRepository gamePlayerRepository,
-                          UserRepository userRepository) {
+                          UserRepository userRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.scheduleRepository = scheduleRepository;
         this.gamePlayerRepository = gamePlayerRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Schedule createSchedule(Long gamePlayerId, Long userId, LocalDateTime startTime,
@@ -51,7 +56,9 @@ public class ScheduleService {
         schedule.setStatus("PENDING");
         schedule.setTotalPrice(calculateTotalPrice(gamePlayer, startTime, endTime));
 
-        return scheduleRepository.save(schedule);
+        schedule = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(schedule.getId(), gamePlayerId));
+        return schedule;
     }
 
     public Schedule updateSchedule(Long scheduleId, LocalDateTime startTime,
@@ -72,7 +79,9 @@ public class ScheduleService {
         schedule.setNotes(notes);
         schedule.setTotalPrice(calculateTotalPrice(schedule.getGamePlayer(), startTime, endTime));
 
-        return scheduleRepository.save(schedule);
+        schedule = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(scheduleId, schedule.getGamePlayer().getId()));
+        return schedule;
     }
 
     public void cancelSchedule(Long scheduleId) {
@@ -80,6 +89,7 @@ public class ScheduleService {
                 .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
         schedule.setStatus("CANCELLED");
         scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(scheduleId, schedule.getGamePlayer().getId()));
     }
 
     public List<Schedule> getGamePlayerSchedules(Long gamePlayerId) {
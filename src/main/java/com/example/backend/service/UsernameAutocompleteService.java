@@ -0,0 +1,168 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.AutocompleteSuggestionDTO;
+import com.example.backend.event.GamePlayerChangedEvent;
+import com.example.backend.event.UserChangedEvent;
+import com.example.backend.repository.GamePlayerRepository;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.PlayerFollowRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.util.RebuildCoordinator;
+import com.example.backend.util.TextNormalizer;
+import com.example.backend.util.TopKTrie;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Gợi ý username theo tiền tố (không phân biệt dấu) từ trie trong bộ nhớ, mỗi nút giữ sẵn top-K theo độ phổ biến.
+// Game player: số follower + số đánh giá; user: tổng giờ được thuê.
+// Tạo/đổi tên cập nhật ngay sau commit; điểm phổ biến được làm mới khi dựng lại định kỳ.
+@Service
+public class UsernameAutocompleteService {
+    private final GamePlayerRepository gamePlayerRepository;
+    private final UserRepository userRepository;
+    private final PlayerFollowRepository playerFollowRepository;
+    private final PaymentRepository paymentRepository;
+    private final int topK;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Key = (true: game player | false: user, id)
+    private final RebuildCoordinator<Map.Entry<Boolean, Long>> coordinator = new RebuildCoordinator<>();
+    private TopKTrie<AutocompleteSuggestionDTO> gamePlayers;
+    private TopKTrie<AutocompleteSuggestionDTO> users;
+
+    public UsernameAutocompleteService(GamePlayerRepository gamePlayerRepository,
+                                       UserRepository userRepository,
+                                       PlayerFollowRepository playerFollowRepository,
+                                       PaymentRepository paymentRepository,
+                                       @Value("${autocomplete.top-k:10}") int topK) {
+        this.gamePlayerRepository = gamePlayerRepository;
+        this.userRepository = userRepository;
+        this.playerFollowRepository = playerFollowRepository;
+        this.paymentRepository = paymentRepository;
+        this.topK = topK;
+        this.gamePlayers = new TopKTrie<>(topK);
+        this.users = new TopKTrie<>(topK);
+    }
+
+    public List<AutocompleteSuggestionDTO> suggestGamePlayers(String prefix, int limit) {
+        return suggest(true, prefix, limit);
+    }
+
+    public List<AutocompleteSuggestionDTO> suggestUsers(String prefix, int limit) {
+        return suggest(false, prefix, limit);
+    }
+
+    private List<AutocompleteSuggestionDTO> suggest(boolean gamePlayer, String prefix, int limit) {
+        String key = TextNormalizer.fold(prefix == null ? "" : prefix.trim());
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return (gamePlayer ? gamePlayers : users).top(key, Math.max(1, Math.min(limit, topK)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${autocomplete.rebuild-interval-ms:3600000}",
+               initialDelayString = "${autocomplete.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        coordinator.rebuild(this::load, this::install, key -> refresh(key.getKey(), key.getValue(), false));
+    }
+
+    // [game player, user]
+    private List<TopKTrie<AutocompleteSuggestionDTO>> load() {
+        Map<Long, Long> followers = new HashMap<>();
+        for (Object[] row : playerFollowRepository.countFollowersGroupByGamePlayer()) {
+            followers.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        TopKTrie<AutocompleteSuggestionDTO> freshGamePlayers = new TopKTrie<>(topK);
+        for (Object[] row : gamePlayerRepository.findAllUsernames()) {
+            Long id = (Long) row[0];
+            double score = followers.getOrDefault(id, 0L) + ((Number) row[2]).longValue();
+            put(freshGamePlayers, id, (String) row[1], score);
+        }
+
+        Map<Long, Double> hireHours = new HashMap<>();
+        for (Object[] row : paymentRepository.aggregateHireTotalsByPlayer()) {
+            hireHours.put(((Number) row[0]).longValue(), ((Number) row[2]).doubleValue());
+        }
+        TopKTrie<AutocompleteSuggestionDTO> freshUsers = new TopKTrie<>(topK);
+        for (Object[] row : userRepository.findAllUsernames()) {
+            Long id = (Long) row[0];
+            put(freshUsers, id, (String) row[1], hireHours.getOrDefault(id, 0.0));
+        }
+
+        return List.of(freshGamePlayers, freshUsers);
+    }
+
+    private void install(List<TopKTrie<AutocompleteSuggestionDTO>> fresh) {
+        lock.writeLock().lock();
+        try {
+            gamePlayers = fresh.get(0);
+            users = fresh.get(1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGamePlayerChanged(GamePlayerChangedEvent event) {
+        Long id = event.getGamePlayerId();
+        coordinator.update(Map.entry(true, id), () -> refresh(true, id, event.isDeleted()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Long id = event.getUserId();
+        coordinator.update(Map.entry(false, id), () -> refresh(false, id, event.isDeleted()));
+    }
+
+    // Đọc username mới nhất đã commit; gọi qua coordinator nên không chạy song song cho cùng id
+    private void refresh(boolean gamePlayer, Long id, boolean deleted) {
+        Optional<String> username = deleted ? Optional.empty()
+                : gamePlayer ? gamePlayerRepository.findUsernameById(id) : userRepository.findUsernameById(id);
+        apply(gamePlayer, id, username);
+    }
+
+    private void apply(boolean gamePlayer, Long id, Optional<String> username) {
+        lock.writeLock().lock();
+        try {
+            TopKTrie<AutocompleteSuggestionDTO> trie = gamePlayer ? gamePlayers : users;
+            if (username.isEmpty()) {
+                trie.remove(id);
+                return;
+            }
+            AutocompleteSuggestionDTO current = trie.get(id);
+            if (current != null && current.getUsername().equals(username.get())) {
+                return; // ghi khác (ví dụ ví, trạng thái) không đổi tên
+            }
+            // Đổi tên giữ nguyên điểm cũ; bản ghi mới bắt đầu từ 0 cho tới lần dựng lại sau
+            Double score = trie.score(id);
+            put(trie, id, username.get(), score == null ? 0 : score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void put(TopKTrie<AutocompleteSuggestionDTO> trie, Long id, String username, double score) {
+        if (username == null) return;
+        trie.put(TextNormalizer.fold(username), id, new AutocompleteSuggestionDTO(id, username), score);
+    }
+}
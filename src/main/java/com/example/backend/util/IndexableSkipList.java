@@ -0,0 +1,191 @@
+package com.example.backend.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Skip list sắp theo (score giảm dần, id tăng dần), mỗi liên kết lưu span để tính hạng trong O(log n).
+// Không thread-safe: nơi dùng tự đồng bộ.
+public class IndexableSkipList {
+    private static final int MAX_LEVEL = 32;
+    private static final double LEVEL_PROBABILITY = 0.25;
+
+    private final Node head = new Node(0L, 0.0, MAX_LEVEL);
+    private final Map<Long, Double> scores = new HashMap<>();
+    private int level = 1;
+    private int length;
+
+    public void put(long id, double score) {
+        Double old = scores.get(id);
+        if (old != null) {
+            if (old == score) return;
+            delete(id, old);
+        }
+        insert(id, score);
+        scores.put(id, score);
+    }
+
+    public boolean remove(long id) {
+        Double old = scores.remove(id);
+        if (old == null) return false;
+        delete(id, old);
+        return true;
+    }
+
+    public Double score(long id) {
+        return scores.get(id);
+    }
+
+    public int size() {
+        return length;
+    }
+
+    // Hạng bắt đầu từ 1; 0 nếu không có trong danh sách
+    public int rank(long id) {
+        Double score = scores.get(id);
+        if (score == null) return 0;
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null
+                    && (before(x.forward[i], id, score) || x.forward[i].id == id)) {
+                rank += x.span[i];
+                x = x.forward[i];
+            }
+            if (x != head && x.id == id) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    public List<Entry> range(int offset, int limit) {
+        List<Entry> result = new ArrayList<>();
+        if (offset < 0 || limit <= 0 || offset >= length) return result;
+
+        int target = offset + 1;
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0 && traversed < target; i--) {
+            while (x.forward[i] != null && traversed + x.span[i] <= target) {
+                traversed += x.span[i];
+                x = x.forward[i];
+            }
+        }
+        while (x != null && result.size() < limit) {
+            result.add(new Entry(x.id, x.score));
+            x = x.forward[0];
+        }
+        return result;
+    }
+
+    private void insert(long id, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.forward[i] != null && before(x.forward[i], id, score)) {
+                rank[i] += x.span[i];
+                x = x.forward[i];
+            }
+            update[i] = x;
+        }
+
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int i = level; i < newLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = length;
+            }
+            level = newLevel;
+        }
+
+        x = new Node(id, score, newLevel);
+        for (int i = 0; i < newLevel; i++) {
+            x.forward[i] = update[i].forward[i];
+            update[i].forward[i] = x;
+            x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = newLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        length++;
+    }
+
+    private void delete(long id, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && before(x.forward[i], id, score)) {
+                x = x.forward[i];
+            }
+            update[i] = x;
+        }
+        x = x.forward[0];
+        if (x == null || x.id != id) return;
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].forward[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].forward[i] = x.forward[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.forward[level - 1] == null) {
+            level--;
+        }
+        length--;
+    }
+
+    // node đứng trước (id, score) theo thứ tự bảng xếp hạng
+    private static boolean before(Node node, long id, double score) {
+        return node.score > score || (node.score == score && node.id < id);
+    }
+
+    private static int randomLevel() {
+        int lvl = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (lvl < MAX_LEVEL && random.nextDouble() < LEVEL_PROBABILITY) {
+            lvl++;
+        }
+        return lvl;
+    }
+
+    private static final class Node {
+        final long id;
+        final double score;
+        final Node[] forward;
+        final int[] span;
+
+        Node(long id, double score, int level) {
+            this.id = id;
+            this.score = score;
+            this.forward = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    public static final class Entry {
+        private final long id;
+        private final double score;
+
+        Entry(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
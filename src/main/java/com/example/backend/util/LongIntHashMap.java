@@ -0,0 +1,95 @@
+package com.example.backend.util;
+
+// Bảng băm khóa long -> giá trị int, địa chỉ mở (dò tuyến tính), không boxing.
+// Khóa 0 được giữ riêng ngoài mảng vì 0 đánh dấu ô trống. Không thread-safe.
+public class LongIntHashMap {
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    public int get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : 0;
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+            if (keys[i] == 0) return 0;
+        }
+    }
+
+    // Cộng delta vào giá trị của key (khóa chưa có coi như 0), trả về giá trị mới
+    public int addTo(long key, int delta) {
+        if (key == 0) {
+            hasZeroKey = true;
+            return zeroValue += delta;
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) return values[i] += delta;
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        if (++size > keys.length * LOAD_FACTOR) {
+            grow();
+        }
+        return delta;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) consumer.accept(0, zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    // Cộng toàn bộ other vào map này
+    public void addAll(LongIntHashMap other) {
+        other.forEach(this::addTo);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) continue;
+            int j = slot(key);
+            while (keys[j] != 0) j = (j + 1) & mask;
+            keys[j] = key;
+            values[j] = oldValues[i];
+        }
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
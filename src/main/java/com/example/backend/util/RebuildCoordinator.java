@@ -0,0 +1,79 @@
+package com.example.backend.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Phối hợp việc dựng lại toàn bộ một chỉ mục trong bộ nhớ với các cập nhật theo key sau commit.
+// Cập nhật theo key tự đọc DB dưới khóa của stripe chứa key, nên hai event cùng key không thể áp dụng lệch thứ tự
+// mà các key khác nhau vẫn đọc song song; monitor chung chỉ giữ trong lúc ghi nhận key.
+// Key đang cập nhật hoặc được cập nhật trong lúc đọc dữ liệu dựng lại sẽ được đọc lại sau khi thay bản mới,
+// vì kết quả của chúng có thể cũ hơn lần đọc toàn bộ hoặc đã ghi vào bản cũ.
+public class RebuildCoordinator<K> {
+    private static final int STRIPES = 64;
+
+    private final Object monitor = new Object();
+    private final Object[] stripes = new Object[STRIPES];
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Map<K, Integer> inFlight = new HashMap<>(); // chỉ truy cập trong monitor
+    private Set<K> touched; // khác null khi đang dựng lại, chỉ truy cập trong monitor
+
+    public RebuildCoordinator() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    public void update(K key, Runnable refresh) {
+        synchronized (monitor) {
+            inFlight.merge(key, 1, Integer::sum);
+            if (touched != null) {
+                touched.add(key);
+            }
+        }
+        try {
+            synchronized (stripes[Math.floorMod(key.hashCode(), STRIPES)]) {
+                refresh.run();
+            }
+        } finally {
+            synchronized (monitor) {
+                inFlight.computeIfPresent(key, (k, n) -> n == 1 ? null : n - 1);
+            }
+        }
+    }
+
+    // loader và các lần đọc lại đều chạy ngoài monitor để cập nhật theo key vẫn tiếp tục trong lúc dựng lại
+    public <S> void rebuild(Supplier<S> loader, Consumer<S> install, Consumer<K> refresh) {
+        rebuildLock.lock();
+        try {
+            synchronized (monitor) {
+                // cập nhật đã đọc DB trước loader có thể ghi đè bản mới bằng dữ liệu cũ, nên cũng phải đọc lại
+                touched = new HashSet<>(inFlight.keySet());
+            }
+            S fresh;
+            try {
+                fresh = loader.get();
+            } catch (RuntimeException | Error e) {
+                synchronized (monitor) {
+                    touched = null;
+                }
+                throw e;
+            }
+            Set<K> replay;
+            synchronized (monitor) {
+                replay = touched;
+                touched = null;
+                install.accept(fresh);
+            }
+            for (K key : replay) {
+                update(key, () -> refresh.accept(key));
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
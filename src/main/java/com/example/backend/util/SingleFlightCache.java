@@ -0,0 +1,99 @@
+package com.example.backend.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+// Gộp các lần tính trùng key đang chạy đồng thời vào một future, kèm cache kết quả TTL ngắn.
+// Invalidate gỡ luôn future đang chạy của key đó: lần tính chỉ được ghi vào cache nếu future của nó vẫn là
+// future hiện hành của key lúc hoàn tất, nên invalidate một key không chặn cache của các key khác.
+public class SingleFlightCache<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Entry<V>> cache = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public SingleFlightCache(long ttlMillis, int maxEntries) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxEntries = maxEntries;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        Entry<V> cached = cache.get(key);
+        if (cached != null && cached.expiresAt - System.nanoTime() > 0) {
+            return cached.value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = loader.get();
+            if (ttlNanos > 0) {
+                if (cache.size() >= maxEntries) {
+                    evictExpired();
+                }
+                // compute khóa theo key nên không xen được với invalidate(key) giữa lúc kiểm tra và lúc ghi
+                Entry<V> fresh = new Entry<>(value, System.nanoTime() + ttlNanos);
+                cache.compute(key, (k, old) -> inFlight.remove(key, future) ? fresh : old);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public void invalidate(K key) {
+        cache.compute(key, (k, old) -> {
+            inFlight.remove(key);
+            return null;
+        });
+    }
+
+    // Gỡ future trước rồi mới xóa cache: lần tính nào hoàn tất sau đó đều thấy future của mình đã bị gỡ
+    public void invalidateAll() {
+        inFlight.clear();
+        cache.clear();
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        cache.entrySet().removeIf(e -> e.getValue().expiresAt - now <= 0);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight load", e);
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
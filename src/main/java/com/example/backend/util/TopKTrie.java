@@ -0,0 +1,162 @@
+package com.example.backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Trie tiền tố, mỗi nút giữ sẵn top-K phần tử (điểm giảm dần) của cả cây con bên dưới.
+// Tra cứu tiền tố = đi theo ký tự rồi đọc mảng top-K của nút, không cần duyệt cây con.
+// Con của một nút lưu trong mảng ký tự đã sắp xếp (tìm nhị phân) cho gọn bộ nhớ. Không thread-safe.
+public class TopKTrie<V> {
+    private static final Comparator<Entry<?>> ORDER = Comparator
+            .comparingDouble((Entry<?> e) -> e.score).reversed()
+            .thenComparing(e -> e.key)
+            .thenComparingLong(e -> e.id);
+
+    private final int k;
+    private final Node<V> root = new Node<>();
+    private final Map<Long, Entry<V>> entries = new HashMap<>();
+
+    public TopKTrie(int k) {
+        this.k = k;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Double score(long id) {
+        Entry<V> entry = entries.get(id);
+        return entry == null ? null : entry.score;
+    }
+
+    public V get(long id) {
+        Entry<V> entry = entries.get(id);
+        return entry == null ? null : entry.value;
+    }
+
+    public void put(String key, long id, V value, double score) {
+        remove(id);
+        Entry<V> entry = new Entry<>(key, id, value, score);
+        entries.put(id, entry);
+        List<Node<V>> path = new ArrayList<>(key.length() + 1);
+        Node<V> node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            path.add(node);
+        }
+        node.terminals.add(entry);
+        refreshTop(path);
+    }
+
+    public void remove(long id) {
+        Entry<V> entry = entries.remove(id);
+        if (entry == null) return;
+        List<Node<V>> path = new ArrayList<>(entry.key.length() + 1);
+        Node<V> node = root;
+        path.add(node);
+        for (int i = 0; i < entry.key.length() && node != null; i++) {
+            node = node.child(entry.key.charAt(i));
+            path.add(node);
+        }
+        if (node == null) return;
+        node.terminals.removeIf(e -> e.id == id);
+        // Tỉa các nút không còn phần tử nào phía dưới
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node<V> current = path.get(i);
+            if (!current.terminals.isEmpty() || current.labels.length > 0) break;
+            path.get(i - 1).removeChild(entry.key.charAt(i - 1));
+            path.remove(i);
+        }
+        refreshTop(path);
+    }
+
+    public List<V> top(String prefix, int limit) {
+        Node<V> node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) return Collections.emptyList();
+        List<V> result = new ArrayList<>(Math.min(limit, node.top.length));
+        for (int i = 0; i < node.top.length && i < limit; i++) {
+            result.add(node.top[i].value);
+        }
+        return result;
+    }
+
+    // Tính lại top-K từ dưới lên: top(nút) = K phần tử tốt nhất của terminals và top của các con
+    @SuppressWarnings("unchecked")
+    private void refreshTop(List<Node<V>> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node<V> node = path.get(i);
+            List<Entry<V>> candidates = new ArrayList<>(node.terminals);
+            for (Node<V> child : node.children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(ORDER);
+            node.top = candidates.subList(0, Math.min(k, candidates.size())).toArray(new Entry[0]);
+        }
+    }
+
+    private static final class Entry<V> {
+        final String key;
+        final long id;
+        final V value;
+        final double score;
+
+        Entry(String key, long id, V value, double score) {
+            this.key = key;
+            this.id = id;
+            this.value = value;
+            this.score = score;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final class Node<V> {
+        char[] labels = new char[0];
+        Node<V>[] children = new Node[0];
+        List<Entry<V>> terminals = new ArrayList<>(1);
+        Entry<V>[] top = new Entry[0];
+
+        Node<V> child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node<V> childOrCreate(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node<V>[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newLabels[at] = c;
+            newChildren[at] = new Node<>();
+            System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[at];
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i < 0) return;
+            char[] newLabels = new char[labels.length - 1];
+            Node<V>[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(labels, i + 1, newLabels, i, labels.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+}
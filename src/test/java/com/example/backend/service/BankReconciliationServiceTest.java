@@ -0,0 +1,70 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BankReconciliationServiceTest {
+    private static final String TXN = "0F3A9C2B7D1E4F5A8B6C0D9E2F1A3B4C";
+
+    @Test
+    void parsesCanonicalContent() {
+        BankReconciliationService.StatementRow row = BankReconciliationService.parseRow(1,
+                "2026-10-01,50000,NAPTIEN_42_TXN_" + TXN + ",FT123");
+
+        assertNull(row.reason);
+        assertEquals(42L, row.userId);
+        assertEquals("TXN_" + TXN, row.transactionId);
+        assertEquals(0, new BigDecimal("50000").compareTo(row.amount));
+        assertEquals("FT123", row.reference);
+    }
+
+    @Test
+    void acceptsSeparatorsRewrittenOrDroppedByBanks() {
+        String[] contents = {
+            "NAPTIEN 42 TXN " + TXN,
+            "NAPTIEN-42-TXN-" + TXN,
+            "NAPTIEN42TXN" + TXN,
+            "naptien_42_txn_" + TXN.toLowerCase(),
+            "CT tu 0123 NAPTIEN 42TXN" + TXN + " toi PLAYERDUO",
+        };
+        for (String content : contents) {
+            BankReconciliationService.StatementRow row = BankReconciliationService.parseRow(1,
+                    "2026-10-01,50000,\"" + content + "\"");
+
+            assertNull(row.reason, content);
+            assertEquals(42L, row.userId, content);
+            assertEquals("TXN_" + TXN, row.transactionId, content);
+        }
+    }
+
+    @Test
+    void acceptsLegacyNumericTransactionId() {
+        BankReconciliationService.StatementRow row = BankReconciliationService.parseRow(1,
+                "2026-10-01,50000,NAPTIEN_7_TXN_1760000000000");
+
+        assertEquals(7L, row.userId);
+        assertEquals("TXN_1760000000000", row.transactionId);
+    }
+
+    @Test
+    void readsQuotedAmountWithThousandsSeparator() {
+        BankReconciliationService.StatementRow row = BankReconciliationService.parseRow(1,
+                "2026-10-01,\"1,500,000\",NAPTIEN_42_TXN_" + TXN);
+
+        assertNull(row.reason);
+        assertEquals(0, new BigDecimal("1500000").compareTo(row.amount));
+    }
+
+    @Test
+    void reportsInvalidRows() {
+        assertEquals("UNPARSEABLE_ROW", BankReconciliationService.parseRow(1, "2026-10-01,50000").reason);
+        assertEquals("INVALID_AMOUNT",
+                BankReconciliationService.parseRow(2, "2026-10-01,abc,NAPTIEN_42_TXN_" + TXN).reason);
+        assertEquals("UNRECOGNIZED_CONTENT",
+                BankReconciliationService.parseRow(3, "2026-10-01,50000,chuyen tien an trua").reason);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexableSkipListTest {
+
+    @Test
+    void ordersByScoreDescendingThenIdAscending() {
+        IndexableSkipList list = new IndexableSkipList();
+        list.put(3, 10.0);
+        list.put(1, 20.0);
+        list.put(2, 10.0);
+        list.put(4, 5.0);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(list.range(0, 10)));
+        assertEquals(1, list.rank(1));
+        assertEquals(2, list.rank(2));
+        assertEquals(3, list.rank(3));
+        assertEquals(4, list.rank(4));
+        assertEquals(List.of(2L, 3L), ids(list.range(1, 2)));
+    }
+
+    @Test
+    void putExistingIdMovesIt() {
+        IndexableSkipList list = new IndexableSkipList();
+        list.put(1, 1.0);
+        list.put(2, 2.0);
+        list.put(3, 3.0);
+
+        list.put(1, 4.0);
+
+        assertEquals(3, list.size());
+        assertEquals(1, list.rank(1));
+        assertEquals(4.0, list.score(1));
+        assertEquals(List.of(1L, 3L, 2L), ids(list.range(0, 3)));
+    }
+
+    @Test
+    void removeAndMissingIds() {
+        IndexableSkipList list = new IndexableSkipList();
+        list.put(1, 1.0);
+
+        assertFalse(list.remove(2));
+        assertTrue(list.remove(1));
+        assertEquals(0, list.size());
+        assertEquals(0, list.rank(1));
+        assertNull(list.score(1));
+        assertTrue(list.range(0, 10).isEmpty());
+    }
+
+    @Test
+    void rangeOutsideBoundsIsEmpty() {
+        IndexableSkipList list = new IndexableSkipList();
+        list.put(1, 1.0);
+
+        assertTrue(list.range(1, 10).isEmpty());
+        assertTrue(list.range(-1, 10).isEmpty());
+        assertTrue(list.range(0, 0).isEmpty());
+    }
+
+    // Span sai làm rank/range lệch so với thứ tự thật, nên đối chiếu với danh sách sắp xếp sau mỗi đợt chèn/xóa
+    @Test
+    void spansStayConsistentAcrossInsertsAndDeletes() {
+        IndexableSkipList list = new IndexableSkipList();
+        Map<Long, Double> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 200; i++) {
+                long id = random.nextInt(500);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(id) != null, list.remove(id));
+                } else {
+                    double score = random.nextInt(50);
+                    list.put(id, score);
+                    expected.put(id, score);
+                }
+            }
+            assertMatches(expected, list);
+        }
+    }
+
+    private static void assertMatches(Map<Long, Double> expected, IndexableSkipList list) {
+        List<Long> order = new ArrayList<>(expected.keySet());
+        order.sort(Comparator.comparing((Long id) -> expected.get(id)).reversed().thenComparing(id -> id));
+
+        assertEquals(order.size(), list.size());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i + 1, list.rank(order.get(i)));
+        }
+        assertEquals(order, ids(list.range(0, order.size())));
+        for (int offset = 0; offset < order.size(); offset += 37) {
+            int to = Math.min(order.size(), offset + 10);
+            assertEquals(order.subList(offset, to), ids(list.range(offset, 10)));
+        }
+    }
+
+    private static List<Long> ids(List<IndexableSkipList.Entry> entries) {
+        List<Long> ids = new ArrayList<>();
+        for (IndexableSkipList.Entry entry : entries) {
+            ids.add(entry.getId());
+        }
+        return ids;
+    }
+}
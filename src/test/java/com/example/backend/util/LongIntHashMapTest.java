@@ -0,0 +1,76 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongIntHashMapTest {
+
+    @Test
+    void missingKeyReadsAsZero() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertEquals(0, map.get(5));
+        assertEquals(0, map.get(0));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void zeroKeyIsStoredOutsideTheTable() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertEquals(3, map.addTo(0, 3));
+        assertEquals(5, map.addTo(0, 2));
+        map.addTo(7, 1);
+
+        assertEquals(5, map.get(0));
+        assertEquals(1, map.get(7));
+        assertEquals(2, map.size());
+        Map<Long, Integer> seen = new HashMap<>();
+        map.forEach(seen::put);
+        assertEquals(Map.of(0L, 5, 7L, 1), seen);
+    }
+
+    @Test
+    void growKeepsEveryEntry() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 20_000; i++) {
+            // Khóa âm và khóa cách nhau bội số lũy thừa 2 dễ dồn cùng ô nếu hàm băm kém
+            long key = random.nextBoolean() ? random.nextLong() : (long) random.nextInt(2000) << 32;
+            int delta = random.nextInt(10) - 3;
+            expected.merge(key, delta, Integer::sum);
+            assertEquals((int) expected.get(key), map.addTo(key, delta));
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals((int) value, map.get(key)));
+        Map<Long, Integer> seen = new HashMap<>();
+        map.forEach(seen::put);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void addAllSumsCounts() {
+        LongIntHashMap target = new LongIntHashMap();
+        target.addTo(1, 2);
+        target.addTo(0, 1);
+        LongIntHashMap other = new LongIntHashMap();
+        other.addTo(1, 3);
+        other.addTo(2, 4);
+        other.addTo(0, 1);
+
+        target.addAll(other);
+
+        assertEquals(5, target.get(1));
+        assertEquals(4, target.get(2));
+        assertEquals(2, target.get(0));
+        assertEquals(3, target.size());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightCacheTest {
+
+    @Test
+    void cachesLoadedValueWithinTtl() {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(60_000, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, cache.get("a", loads::incrementAndGet));
+        assertEquals(1, cache.get("a", loads::incrementAndGet));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void zeroTtlNeverCaches() {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(0, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", loads::incrementAndGet);
+        cache.get("a", loads::incrementAndGet);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentCallersShareOneInFlightLoad() throws Exception {
+        SingleFlightCache<String, Object> cache = new SingleFlightCache<>(60_000, 100);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object value = new Object();
+        AtomicInteger secondLoads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> cache.get("a", () -> {
+                started.countDown();
+                await(release);
+                return value;
+            }), executor);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Object> second = CompletableFuture.supplyAsync(() -> cache.get("a", () -> {
+                secondLoads.incrementAndGet();
+                return new Object();
+            }), executor);
+
+            release.countDown();
+
+            assertSame(value, first.get(5, TimeUnit.SECONDS));
+            assertSame(value, second.get(5, TimeUnit.SECONDS));
+            assertEquals(0, secondLoads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void invalidateDuringLoadKeepsResultOutOfCache() {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(60_000, 100);
+
+        assertEquals(1, cache.get("a", () -> {
+            cache.invalidate("a");
+            return 1;
+        }));
+        assertEquals(2, cache.get("a", () -> 2));
+    }
+
+    @Test
+    void invalidatingAnotherKeyDoesNotBlockCaching() {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(60_000, 100);
+        cache.get("b", () -> 10);
+
+        assertEquals(1, cache.get("a", () -> {
+            cache.invalidate("b");
+            return 1;
+        }));
+        assertEquals(1, cache.get("a", () -> 2));
+        assertEquals(20, cache.get("b", () -> 20));
+    }
+
+    @Test
+    void invalidateAllDuringLoadKeepsResultOutOfCache() {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(60_000, 100);
+        cache.get("b", () -> 10);
+
+        assertEquals(1, cache.get("a", () -> {
+            cache.invalidateAll();
+            return 1;
+        }));
+        assertEquals(2, cache.get("a", () -> 2));
+        assertEquals(20, cache.get("b", () -> 20));
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(60_000, 100);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> cache.get("a", () -> { throw new IllegalStateException("boom"); }));
+        assertEquals("boom", error.getMessage());
+        assertEquals(1, cache.get("a", () -> 1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopKTrieTest {
+
+    @Test
+    void prefixReturnsBestKOfSubtree() {
+        TopKTrie<String> trie = new TopKTrie<>(2);
+        trie.put("an", 1, "an", 1.0);
+        trie.put("anh", 2, "anh", 5.0);
+        trie.put("ann", 3, "ann", 3.0);
+        trie.put("bao", 4, "bao", 9.0);
+
+        assertEquals(List.of("anh", "ann"), trie.top("a", 10));
+        assertEquals(List.of("bao", "anh"), trie.top("", 10));
+        assertEquals(List.of("anh"), trie.top("a", 1));
+        assertTrue(trie.top("c", 10).isEmpty());
+    }
+
+    @Test
+    void removingTopEntryPromotesNextAtEveryAncestor() {
+        TopKTrie<String> trie = new TopKTrie<>(2);
+        trie.put("an", 1, "an", 1.0);
+        trie.put("anh", 2, "anh", 5.0);
+        trie.put("ann", 3, "ann", 3.0);
+
+        trie.remove(2);
+
+        assertEquals(List.of("ann", "an"), trie.top("a", 10));
+        assertEquals(List.of("ann", "an"), trie.top("an", 10));
+        assertTrue(trie.top("anh", 10).isEmpty());
+        assertNull(trie.get(2));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void pruningKeepsLongerKeysBelowARemovedPrefix() {
+        TopKTrie<String> trie = new TopKTrie<>(3);
+        trie.put("an", 1, "an", 1.0);
+        trie.put("anna", 2, "anna", 2.0);
+
+        trie.remove(1);
+        assertEquals(List.of("anna"), trie.top("an", 10));
+
+        trie.remove(2);
+        assertTrue(trie.top("", 10).isEmpty());
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    void putSameIdReplacesKeyAndScore() {
+        TopKTrie<String> trie = new TopKTrie<>(3);
+        trie.put("minh", 1, "minh", 1.0);
+
+        trie.put("long", 1, "long", 7.0);
+
+        assertTrue(trie.top("m", 10).isEmpty());
+        assertEquals(List.of("long"), trie.top("l", 10));
+        assertEquals(7.0, trie.score(1));
+        assertEquals(1, trie.size());
+    }
+
+    // Đối chiếu top-K từng tiền tố với duyệt toàn bộ sau khi chèn/xóa ngẫu nhiên (xóa làm tỉa nút)
+    @Test
+    void matchesBruteForceWhilePruning() {
+        int k = 3;
+        TopKTrie<Long> trie = new TopKTrie<>(k);
+        Map<Long, String> keys = new HashMap<>();
+        Map<Long, Double> scores = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 3000; i++) {
+            long id = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                trie.remove(id);
+                keys.remove(id);
+                scores.remove(id);
+            } else {
+                String key = randomKey(random);
+                double score = random.nextInt(20);
+                trie.put(key, id, id, score);
+                keys.put(id, key);
+                scores.put(id, score);
+            }
+            if (i % 100 == 0) {
+                for (String prefix : List.of("", "a", "b", "ab", "ba", "cc", "abc")) {
+                    assertEquals(bruteForce(keys, scores, prefix, k), trie.top(prefix, k), "prefix " + prefix);
+                }
+            }
+        }
+    }
+
+    private static String randomKey(Random random) {
+        int length = 1 + random.nextInt(4);
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+
+    private static List<Long> bruteForce(Map<Long, String> keys, Map<Long, Double> scores, String prefix, int k) {
+        List<Long> ids = new ArrayList<>();
+        keys.forEach((id, key) -> {
+            if (key.startsWith(prefix)) ids.add(id);
+        });
+        return ids.stream()
+                .sorted(Comparator.comparing((Long id) -> scores.get(id)).reversed()
+                        .thenComparing(keys::get)
+                        .thenComparing(id -> id))
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+}